@@ -1,11 +1,13 @@
 package com.ldubgd.botforuni;
 
-import com.ldubgd.botforuni.processors.Processor;
+import com.ldubgd.botforuni.processors.UpdateDispatcher;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
@@ -13,20 +15,22 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 @Data
 @EqualsAndHashCode(callSuper = false) // Або callSuper = false, залежно від ваших вимог
 @Component
+@ConditionalOnProperty(name = "bot.mode", havingValue = "polling", matchIfMissing = true)
 public class TelegramBot extends TelegramLongPollingBot {
     @Value("${telegram.bot.username}")
     private String botUsername;
 
-    @Value("${telegram.bot.token}")
-    private String botToken;
-
     @Autowired
-    private Processor processor;
+    private UpdateDispatcher updateDispatcher;
+
+    public TelegramBot(DefaultBotOptions options, @Value("${telegram.bot.token}") String botToken) {
+        super(options, botToken);
+    }
 
 
     @Override
     public void onUpdateReceived(Update update) {
-        processor.process(update);
+        updateDispatcher.dispatch(update);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.ldubgd.botforuni;
+
+import com.ldubgd.botforuni.processors.UpdateDispatcher;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.bots.TelegramWebhookBot;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+/**
+ * Бот у режимі webhook: Telegram сам надсилає оновлення на HTTP-ендпоінт
+ * {@link com.ldubgd.botforuni.controllers.TelegramWebhookController}, тому екземплярів бота може бути кілька
+ * за балансувальником. Вмикається параметром {@code bot.mode=webhook}.
+ */
+@Slf4j
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Component
+@ConditionalOnProperty(name = "bot.mode", havingValue = "webhook")
+public class WebhookTelegramBot extends TelegramWebhookBot {
+    @Value("${telegram.bot.username}")
+    private String botUsername;
+
+    @Value("${bot.webhook.url}")
+    private String webhookUrl;
+
+    @Value("${bot.webhook.path}")
+    private String botPath;
+
+    @Value("${bot.webhook.secret}")
+    private String webhookSecret;
+
+    @Value("${bot.webhook.max-connections:40}")
+    private int maxConnections;
+
+    @Autowired
+    private UpdateDispatcher updateDispatcher;
+
+    public WebhookTelegramBot(DefaultBotOptions options, @Value("${telegram.bot.token}") String botToken) {
+        super(options, botToken);
+    }
+
+
+    @Override
+    public BotApiMethod<?> onWebhookUpdateReceived(Update update) {
+        updateDispatcher.dispatch(update);
+        return null;
+    }
+
+    /**
+     * Реєструє адресу webhook у Telegram. Якщо бот раніше працював через long polling, Telegram після цього
+     * перестає віддавати оновлення через getUpdates і починає надсилати їх на вказану адресу.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerWebhook() throws TelegramApiException {
+        if (webhookUrl.isBlank() || webhookSecret.isBlank()) {
+            throw new IllegalStateException("Для режиму webhook потрібно задати bot.webhook.url і bot.webhook.secret");
+        }
+        setWebhook(SetWebhook.builder()
+                .url(webhookUrl + botPath)
+                .secretToken(webhookSecret)
+                .maxConnections(maxConnections)
+                .build());
+        log.info("Webhook зареєстровано: {}{}", webhookUrl, botPath);
+    }
+}
@@ -4,6 +4,7 @@ import com.ldubgd.utils.CryptoTool;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 
 @Configuration
 public class BotForUniConfig {
@@ -15,4 +16,18 @@ public class BotForUniConfig {
     public CryptoTool getCryptoTool(){
         return new CryptoTool(salt);
     }
+
+    /**
+     * Налаштування клієнта Telegram. executeAsync виконує запити в пулі бота, тому його розмір відповідає
+     * кількості запитів, які черга відправки дозволяє виконувати одночасно. Адресу Bot API можна замінити,
+     * наприклад на власний сервер Bot API або на тестовий сервер.
+     */
+    @Bean
+    public DefaultBotOptions botOptions(@Value("${bot.sender.max-in-flight:8}") int maxInFlight,
+                                        @Value("${bot.api-url:https://api.telegram.org/bot}") String apiUrl) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setMaxThreads(maxInFlight);
+        options.setBaseUrl(apiUrl);
+        return options;
+    }
 }
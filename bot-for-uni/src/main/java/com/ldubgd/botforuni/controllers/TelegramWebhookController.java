@@ -0,0 +1,53 @@
+package com.ldubgd.botforuni.controllers;
+
+import com.ldubgd.botforuni.processors.UpdateDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Приймає оновлення, які Telegram надсилає на webhook.
+ * <p>
+ * Оновлення лише кладеться в чергу {@link UpdateDispatcher} і одразу підтверджується, тож відповідь не залежить від
+ * тривалості обробки. Якщо черга смуги заповнена, повертається 503 — Telegram повторить доставку пізніше.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "bot.mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    private static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final UpdateDispatcher updateDispatcher;
+    private final byte[] secret;
+
+    public TelegramWebhookController(UpdateDispatcher updateDispatcher,
+                                     @Value("${bot.webhook.secret}") String secret) {
+        this.updateDispatcher = updateDispatcher;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("${bot.webhook.path}")
+    public ResponseEntity<Void> receiveUpdate(@RequestHeader(value = SECRET_HEADER, required = false) String token,
+                                              @RequestBody Update update) {
+        if (token == null || !MessageDigest.isEqual(secret, token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Відхилено запит на webhook з неправильним секретом");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!updateDispatcher.offer(update)) {
+            log.warn("Черга обробки заповнена, оновлення {} буде доставлено повторно", update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
@@ -3,7 +3,30 @@ package com.ldubgd.botforuni.messageSender;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface MessageSender {
-    Integer sendMessage(SendMessage sendMessage);
-    void sendMessage(EditMessageReplyMarkup editMessageReplyMarkup);
+    default Integer sendMessage(SendMessage sendMessage) {
+        return sendMessage(sendMessage, SendPriority.INTERACTIVE);
+    }
+
+    Integer sendMessage(SendMessage sendMessage, SendPriority priority);
+
+    default void sendMessage(EditMessageReplyMarkup editMessageReplyMarkup) {
+        sendMessage(editMessageReplyMarkup, SendPriority.INTERACTIVE);
+    }
+
+    void sendMessage(EditMessageReplyMarkup editMessageReplyMarkup, SendPriority priority);
+
+    /**
+     * Ставить повідомлення в чергу відправки і не чекає на відповідь Telegram.
+     *
+     * @return ID надісланого повідомлення, коли Telegram його прийме
+     */
+    CompletableFuture<Integer> sendMessageAsync(SendMessage sendMessage, SendPriority priority);
+
+    /**
+     * Ставить оновлення клавіатури в чергу відправки і не чекає на відповідь Telegram.
+     */
+    CompletableFuture<Void> sendMessageAsync(EditMessageReplyMarkup editMessageReplyMarkup, SendPriority priority);
 }
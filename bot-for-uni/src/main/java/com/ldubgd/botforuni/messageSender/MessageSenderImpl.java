@@ -1,47 +1,72 @@
 package com.ldubgd.botforuni.messageSender;
 
-import com.ldubgd.botforuni.TelegramBot;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
 public class MessageSenderImpl implements MessageSender {
-    private TelegramBot telegramBot;
+    private final OutboundDispatcher outboundDispatcher;
+
+    public MessageSenderImpl(OutboundDispatcher outboundDispatcher) {
+        this.outboundDispatcher = outboundDispatcher;
+    }
 
     @Override
-    public Integer sendMessage(SendMessage sendMessage) {
+    public Integer sendMessage(SendMessage sendMessage, SendPriority priority) {
         try {
-            log.info("Відправка повідомлення користувачу з ID: {}", sendMessage.getChatId());
-            return telegramBot.execute(sendMessage).getMessageId();
-        } catch (TelegramApiException e) {
-            log.error("Не вдалося надіслати повідомлення користувачу з ID: {}. Помилка: {}", sendMessage.getChatId(), e.getMessage());
-            throw new RuntimeException("Помилка відправки повідомлення", e);
+            return sendMessageAsync(sendMessage, priority).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Помилка відправки повідомлення", e.getCause());
         }
     }
 
-    public void sendMessage(EditMessageReplyMarkup editMessageReplyMarkup) {
+    @Override
+    public void sendMessage(EditMessageReplyMarkup editMessageReplyMarkup, SendPriority priority) {
         try {
-            log.info("Оновлення повідомлення з ID: {} для користувача з ID: {}",
-                    editMessageReplyMarkup.getMessageId(),
-                    editMessageReplyMarkup.getChatId());
-            telegramBot.execute(editMessageReplyMarkup);
-        } catch (TelegramApiException e) {
-            log.error("Не вдалося оновити повідомлення з ID: {} для користувача з ID: {}. Помилка: {}",
-                    editMessageReplyMarkup.getMessageId(),
-                    editMessageReplyMarkup.getChatId(),
-                    e.getMessage());
-            throw new RuntimeException("Помилка оновлення повідомлення", e);
+            sendMessageAsync(editMessageReplyMarkup, priority).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Помилка оновлення повідомлення", e.getCause());
         }
     }
 
-    @Autowired
-    public void setTelegramBot(@Lazy TelegramBot telegramBot) {
-        this.telegramBot = telegramBot;
+    @Override
+    public CompletableFuture<Integer> sendMessageAsync(SendMessage sendMessage, SendPriority priority) {
+        log.info("Відправка повідомлення користувачу з ID: {}", sendMessage.getChatId());
+        return outboundDispatcher.submit(sendMessage.getChatId(), sendMessage, priority)
+                .thenApply(Message::getMessageId)
+                .whenComplete((messageId, error) -> {
+                    if (error != null) {
+                        log.error("Не вдалося надіслати повідомлення користувачу з ID: {}. Помилка: {}",
+                                sendMessage.getChatId(), causeOf(error).getMessage());
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> sendMessageAsync(EditMessageReplyMarkup editMessageReplyMarkup, SendPriority priority) {
+        log.info("Оновлення повідомлення з ID: {} для користувача з ID: {}",
+                editMessageReplyMarkup.getMessageId(),
+                editMessageReplyMarkup.getChatId());
+        return outboundDispatcher.submit(editMessageReplyMarkup.getChatId(), editMessageReplyMarkup, priority)
+                .<Void>thenApply(result -> null)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Не вдалося оновити повідомлення з ID: {} для користувача з ID: {}. Помилка: {}",
+                                editMessageReplyMarkup.getMessageId(),
+                                editMessageReplyMarkup.getChatId(),
+                                causeOf(error).getMessage());
+                    }
+                });
+    }
+
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 }
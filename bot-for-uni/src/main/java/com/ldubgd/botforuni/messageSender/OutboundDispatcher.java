@@ -0,0 +1,416 @@
+package com.ldubgd.botforuni.messageSender;
+
+import com.ldubgd.botforuni.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Черга вихідних запитів до Telegram з урахуванням його лімітів.
+ * <p>
+ * Запити відправляються не частіше за глобальний ліміт бота (~30 повідомлень на секунду) і за ліміт на один чат
+ * (~1 повідомлення на секунду з невеликим запасом на кілька повідомлень поспіль). Запити одного чату відправляються
+ * строго по черзі. Спочатку обслуговується черга {@link SendPriority#INTERACTIVE}, потім {@link SendPriority#BULK}.
+ * <p>
+ * На відповідь 429 чат призупиняється на час із {@code retry_after}, на помилки сервера і мережі запит повторюється
+ * з експоненційною затримкою з випадковим розкидом. Інші помилки (400, 403) не повторюються.
+ * <p>
+ * Запити виконуються через {@code executeAsync}, тож потік черги не чекає на відповідь Telegram, а кількість
+ * одночасних запитів обмежена {@code bot.sender.max-in-flight}. Результати запитів завершуються в окремому пулі
+ * {@code outbound-callback}: залежні дії (запис у базу, нові запити через {@link #submit}, які можуть чекати
+ * на місце в черзі) не займають потоків клієнта Telegram, тож не можуть заблокувати завершення інших запитів.
+ */
+@Slf4j
+@Component
+public class OutboundDispatcher {
+
+    private static final long CHAT_CLEANUP_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+    private static final long MAX_BACKOFF = TimeUnit.SECONDS.toNanos(30);
+
+    private final AbsSender telegramBot;
+    private final int globalPerSecond;
+    private final TokenBucket globalLimit;
+    private final int chatBurst;
+    private final long chatRefillNanos;
+    private final int capacity;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final Thread dispatcherThread;
+    private final ExecutorService callbackExecutor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Map<SendPriority, Deque<OutboundMessage<?>>> lanes = new EnumMap<>(SendPriority.class);
+    private final Map<String, ChatState> chats = new HashMap<>();
+    private final Map<SendPriority, AtomicInteger> queueDepth = new EnumMap<>(SendPriority.class);
+    private int queued;
+    private int inFlight;
+    private boolean running = true;
+    private long chatsCleanedAt = System.nanoTime();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter sent;
+    private final Counter rateLimited;
+    private final Counter retried;
+    private final Counter failed;
+
+    public OutboundDispatcher(@Lazy AbsSender telegramBot,
+                              MeterRegistry meterRegistry,
+                              @Value("${bot.sender.global-per-second:30}") int globalPerSecond,
+                              @Value("${bot.sender.chat-burst:3}") int chatBurst,
+                              @Value("${bot.sender.chat-interval:1s}") Duration chatInterval,
+                              @Value("${bot.sender.queue-capacity:10000}") int capacity,
+                              @Value("${bot.sender.max-in-flight:8}") int maxInFlight,
+                              @Value("${bot.sender.max-attempts:5}") int maxAttempts,
+                              @Value("${bot.sender.backoff:500ms}") Duration backoff,
+                              @Value("${bot.sender.callback-threads:2}") int callbackThreads) {
+        this.telegramBot = telegramBot;
+        this.meterRegistry = meterRegistry;
+        this.globalPerSecond = globalPerSecond;
+        this.globalLimit = new TokenBucket(globalPerSecond, TimeUnit.SECONDS.toNanos(1));
+        this.chatBurst = chatBurst;
+        this.chatRefillNanos = chatInterval.toNanos() * chatBurst;
+        this.capacity = capacity;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+
+        this.dispatcherThread = new Thread(this::dispatchLoop, "outbound-dispatcher");
+        AtomicInteger callbackThreadNumber = new AtomicInteger();
+        // Черга не обмежена: результат запиту, який уже виконано, не можна відкинути
+        this.callbackExecutor = new ThreadPoolExecutor(callbackThreads, callbackThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "outbound-callback-" + callbackThreadNumber.incrementAndGet()));
+
+        for (SendPriority priority : SendPriority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+            AtomicInteger depth = meterRegistry.gauge("bot.sender.queue",
+                    Tags.of("priority", priority.name().toLowerCase()), new AtomicInteger());
+            queueDepth.put(priority, depth);
+        }
+        Gauge.builder("bot.sender.in.flight", () -> inFlight).register(meterRegistry);
+        this.sent = meterRegistry.counter("bot.sender.sent");
+        this.rateLimited = meterRegistry.counter("bot.sender.rate.limited");
+        this.retried = meterRegistry.counter("bot.sender.retries");
+        this.failed = meterRegistry.counter("bot.sender.failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcherThread.start();
+        log.info("Черга відправки запущена: {} запитів/с на бота, до {} запитів одночасно", globalPerSecond, maxInFlight);
+    }
+
+    /**
+     * Ставить запит у чергу відправки. Якщо черга заповнена, викликаючий потік чекає на вільне місце.
+     *
+     * @param chatId   ID чату, до якого належить запит
+     * @param method   запит до Telegram
+     * @param priority пріоритет запиту
+     * @return результат запиту, який завершиться після успішної відправки або остаточної помилки
+     */
+    public <T extends Serializable> CompletableFuture<T> submit(String chatId, BotApiMethod<T> method, SendPriority priority) {
+        OutboundMessage<T> message = new OutboundMessage<>(chatId, method, priority);
+        lock.lock();
+        try {
+            while (running && queued >= capacity) {
+                notFull.await();
+            }
+            if (!running) {
+                message.future.completeExceptionally(new RejectedExecutionException("Черга відправки зупинена"));
+                return message.future;
+            }
+            enqueue(message, false);
+            changed.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            message.future.completeExceptionally(e);
+        } finally {
+            lock.unlock();
+        }
+        return message.future;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatcherThread.join(TimeUnit.SECONDS.toMillis(5));
+        lock.lock();
+        try {
+            // Даємо запитам, що вже виконуються, завершитися
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (inFlight > 0 && deadline - System.nanoTime() > 0) {
+                changed.awaitNanos(deadline - System.nanoTime());
+            }
+            lanes.values().forEach(lane -> lane.forEach(message -> message.future
+                    .completeExceptionally(new RejectedExecutionException("Черга відправки зупинена"))));
+            if (queued > 0) {
+                log.warn("Черга відправки зупинена, {} запитів не відправлено", queued);
+            }
+        } finally {
+            lock.unlock();
+        }
+        callbackExecutor.shutdown();
+        if (!callbackExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            callbackExecutor.shutdownNow();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            OutboundMessage<?> message;
+            lock.lock();
+            try {
+                message = takeNext();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            if (message == null) {
+                return;
+            }
+            send(message);
+        }
+    }
+
+    /**
+     * Чекає, доки ліміти дозволять відправити якийсь запит, і забирає його з черги.
+     *
+     * @return запит для відправки або {@code null}, якщо чергу зупинено
+     */
+    private OutboundMessage<?> takeNext() throws InterruptedException {
+        while (running) {
+            long now = System.nanoTime();
+            removeIdleChats(now);
+            long wait = inFlight >= maxInFlight ? -1 : nextWait(now);
+            if (wait == 0) {
+                return pollReady(now);
+            }
+            if (wait < 0) {
+                changed.await();
+            } else {
+                changed.awaitNanos(wait);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 0, якщо якийсь запит можна відправити зараз; час до появи такої можливості; або -1, якщо чекати нічого
+     */
+    private long nextWait(long now) {
+        long wait = -1;
+        for (Deque<OutboundMessage<?>> lane : lanes.values()) {
+            for (OutboundMessage<?> message : lane) {
+                ChatState chat = chats.computeIfAbsent(message.chatId, id -> new ChatState());
+                if (chat.sending) {
+                    continue;
+                }
+                long chatWait = Math.max(chat.limit.nanosUntilAvailable(now), chat.blockedUntil - now);
+                if (chatWait > 0) {
+                    wait = wait < 0 ? chatWait : Math.min(wait, chatWait);
+                    continue;
+                }
+                return globalLimit.nanosUntilAvailable(now);
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Забирає з черги перший запит, чат якого зараз можна обслужити; викликається, коли {@link #nextWait(long)}
+     * повернув 0.
+     */
+    private OutboundMessage<?> pollReady(long now) {
+        for (Deque<OutboundMessage<?>> lane : lanes.values()) {
+            Iterator<OutboundMessage<?>> iterator = lane.iterator();
+            while (iterator.hasNext()) {
+                OutboundMessage<?> message = iterator.next();
+                ChatState chat = chats.get(message.chatId);
+                if (chat.sending || chat.limit.nanosUntilAvailable(now) > 0 || chat.blockedUntil - now > 0) {
+                    continue;
+                }
+                iterator.remove();
+                queued--;
+                queueDepth.get(message.priority).decrementAndGet();
+                notFull.signal();
+
+                globalLimit.consume(now);
+                chat.limit.consume(now);
+                chat.sending = true;
+                inFlight++;
+                if (message.attempts == 0) {
+                    Timer.builder("bot.sender.wait")
+                            .tag("priority", message.priority.name().toLowerCase())
+                            .register(meterRegistry)
+                            .record(now - message.submittedAt, TimeUnit.NANOSECONDS);
+                }
+                return message;
+            }
+        }
+        throw new IllegalStateException("Немає запиту, готового до відправки");
+    }
+
+    private <T extends Serializable> void send(OutboundMessage<T> message) {
+        message.attempts++;
+        CompletableFuture<T> request;
+        try {
+            request = telegramBot.executeAsync(message.method);
+        } catch (TelegramApiException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((result, error) -> completed(message, result, error));
+    }
+
+    private <T extends Serializable> void completed(OutboundMessage<T> message, T result, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        long retryDelay = cause != null ? retryDelayOf(message, cause) : -1;
+        finished(message, retryDelay);
+        // Результат віддається поза блокуванням і поза потоком клієнта Telegram, який завершив запит
+        if (cause == null) {
+            sent.increment();
+            complete(message, () -> message.future.complete(result));
+        } else if (retryDelay < 0) {
+            failed.increment();
+            complete(message, () -> message.future.completeExceptionally(cause));
+        }
+    }
+
+    private void complete(OutboundMessage<?> message, Runnable completion) {
+        try {
+            callbackExecutor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            // Пул уже зупинено під час завершення роботи: залежні дії виконуються в поточному потоці
+            log.debug("Результат запиту до чату {} віддається в потоці клієнта", message.chatId);
+            completion.run();
+        }
+    }
+
+    /**
+     * @return затримка перед повтором у наносекундах або -1, якщо запит не повторюється
+     */
+    private long retryDelayOf(OutboundMessage<?> message, Throwable error) {
+        if (error instanceof TelegramApiRequestException e) {
+            Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+            if (retryAfter != null || Integer.valueOf(429).equals(e.getErrorCode())) {
+                rateLimited.increment();
+                long delay = TimeUnit.SECONDS.toNanos(retryAfter != null ? retryAfter : 1);
+                log.warn("Telegram обмежив відправку до чату {}, повтор через {} с", message.chatId,
+                        TimeUnit.NANOSECONDS.toSeconds(delay));
+                return message.attempts < maxAttempts ? delay : -1;
+            }
+            return e.getErrorCode() != null && e.getErrorCode() >= 500 ? backoff(message) : -1;
+        }
+        // Помилка мережі або відповідь, яку не вдалося розібрати
+        return error instanceof TelegramApiException ? backoff(message) : -1;
+    }
+
+    private long backoff(OutboundMessage<?> message) {
+        if (message.attempts >= maxAttempts) {
+            return -1;
+        }
+        long delay = Math.min(MAX_BACKOFF, backoffNanos << (message.attempts - 1));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void finished(OutboundMessage<?> message, long retryDelay) {
+        lock.lock();
+        try {
+            inFlight--;
+            ChatState chat = chats.computeIfAbsent(message.chatId, id -> new ChatState());
+            chat.sending = false;
+            if (retryDelay >= 0) {
+                retried.increment();
+                chat.blockedUntil = System.nanoTime() + retryDelay;
+                // Повертаємо запит на початок черги, щоб не порушити порядок повідомлень чату
+                enqueue(message, true);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(OutboundMessage<?> message, boolean first) {
+        Deque<OutboundMessage<?>> lane = lanes.get(message.priority);
+        if (first) {
+            lane.addFirst(message);
+        } else {
+            lane.addLast(message);
+        }
+        queued++;
+        queueDepth.get(message.priority).incrementAndGet();
+    }
+
+    private void removeIdleChats(long now) {
+        if (now - chatsCleanedAt < CHAT_CLEANUP_INTERVAL) {
+            return;
+        }
+        chatsCleanedAt = now;
+        chats.values().removeIf(chat -> !chat.sending && chat.blockedUntil - now <= 0 && chat.limit.isFull(now));
+    }
+
+    private class ChatState {
+        private final TokenBucket limit = new TokenBucket(chatBurst, chatRefillNanos);
+        private long blockedUntil = System.nanoTime();
+        private boolean sending;
+    }
+
+    private static class OutboundMessage<T extends Serializable> {
+        private final String chatId;
+        private final BotApiMethod<T> method;
+        private final SendPriority priority;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long submittedAt = System.nanoTime();
+        private int attempts;
+
+        private OutboundMessage(String chatId, BotApiMethod<T> method, SendPriority priority) {
+            this.chatId = chatId;
+            this.method = method;
+            this.priority = priority;
+        }
+    }
+}
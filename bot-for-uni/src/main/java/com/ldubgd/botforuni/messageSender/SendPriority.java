@@ -0,0 +1,16 @@
+package com.ldubgd.botforuni.messageSender;
+
+/**
+ * Пріоритет вихідного повідомлення. Черги обслуговуються в порядку оголошення:
+ * поки є готові до відправки відповіді користувачам, масові сповіщення чекають.
+ */
+public enum SendPriority {
+    /**
+     * Відповідь на дію користувача.
+     */
+    INTERACTIVE,
+    /**
+     * Масові сповіщення, наприклад про готові довідки.
+     */
+    BULK
+}
@@ -0,0 +1,123 @@
+package com.ldubgd.botforuni.processors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Розподіляє оновлення Telegram між паралельними "смугами" обробки.
+ * <p>
+ * Кожна смуга — окремий потік зі своєю обмеженою чергою, а смуга оновлення визначається за ID чату, тож оновлення
+ * одного чату обробляються строго по черзі, а різні чати — паралельно і не чекають один на одного.
+ * Коли черга смуги заповнена, потік отримання оновлень чекає на вільне місце, тому бот не набирає більше роботи,
+ * ніж встигає виконати. У режимі webhook замість очікування використовується {@link #offer(Update)}: HTTP-запит
+ * не блокується, а переповнена черга повідомляється Telegram, який повторить доставку пізніше.
+ */
+@Slf4j
+@Component
+public class UpdateDispatcher {
+
+    private final Processor processor;
+    private final ThreadPoolExecutor[] lanes;
+
+    public UpdateDispatcher(Processor processor,
+                            @Value("${bot.dispatcher.lanes:16}") int laneCount,
+                            @Value("${bot.dispatcher.queue-capacity:100}") int queueCapacity) {
+        this.processor = processor;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "update-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> new Thread(runnable, threadName),
+                    UpdateDispatcher::waitForSpace);
+            // Потік смуги запускається одразу, щоб offer() міг класти завдання прямо в чергу
+            lanes[i].prestartCoreThread();
+        }
+        log.info("Диспетчер оновлень запущено: {} смуг, черга на смугу — {}", laneCount, queueCapacity);
+    }
+
+    /**
+     * Передає оновлення на обробку у смугу його чату.
+     *
+     * @param update оновлення Telegram
+     */
+    public void dispatch(Update update) {
+        laneOf(update).execute(taskOf(update));
+    }
+
+    /**
+     * Передає оновлення на обробку у смугу його чату без очікування.
+     *
+     * @param update оновлення Telegram
+     * @return {@code false}, якщо черга смуги заповнена або диспетчер зупинено
+     */
+    public boolean offer(Update update) {
+        ThreadPoolExecutor lane = laneOf(update);
+        return !lane.isShutdown() && lane.getQueue().offer(taskOf(update));
+    }
+
+    private ThreadPoolExecutor laneOf(Update update) {
+        Long chatId = chatIdOf(update);
+        long key = chatId != null ? chatId : update.getUpdateId();
+        return lanes[Math.floorMod(Long.hashCode(key), lanes.length)];
+    }
+
+    private Runnable taskOf(Update update) {
+        return () -> {
+            try {
+                processor.process(update);
+            } catch (Exception e) {
+                log.error("Помилка обробки оновлення {} для чату {}: {}", update.getUpdateId(), chatIdOf(update), e.getMessage(), e);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Смуга обробки не завершилась вчасно, {} оновлень не оброблено", lane.getQueue().size());
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    private static Long chatIdOf(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery()) {
+            if (update.getCallbackQuery().getMessage() != null) {
+                return update.getCallbackQuery().getMessage().getChatId();
+            }
+            return update.getCallbackQuery().getFrom().getId();
+        }
+        return null;
+    }
+
+    /**
+     * Блокує потік отримання оновлень, доки у черзі смуги не з'явиться місце.
+     */
+    private static void waitForSpace(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Диспетчер оновлень зупинено");
+        }
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Очікування місця в черзі перервано", e);
+        }
+    }
+}
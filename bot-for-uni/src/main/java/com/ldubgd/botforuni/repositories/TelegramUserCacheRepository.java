@@ -2,8 +2,15 @@ package com.ldubgd.botforuni.repositories;
 
 import com.ldubgd.botforuni.domain.TelegramUserCache;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface TelegramUserCacheRepository extends JpaRepository<TelegramUserCache,Long> {
-
+import javax.transaction.Transactional;
 
+public interface TelegramUserCacheRepository extends JpaRepository<TelegramUserCache,Long> {
+    @Transactional
+    @Modifying
+    @Query("UPDATE TelegramUserCache t SET t.massageId = :massageId WHERE t.telegramId = :id")
+    int updateMassageId(@Param("id") Long id, @Param("massageId") Integer massageId);
 }
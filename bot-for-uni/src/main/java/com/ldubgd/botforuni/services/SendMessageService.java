@@ -5,6 +5,7 @@ import com.ldubgd.botforuni.domain.TelegramUserCache;
 import com.ldubgd.botforuni.domain.enums.LinkType;
 import com.ldubgd.botforuni.keybords.Keyboards;
 import com.ldubgd.botforuni.messageSender.MessageSender;
+import com.ldubgd.botforuni.messageSender.SendPriority;
 import com.ldubgd.utils.CryptoTool;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,8 +18,16 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMa
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardRemove;
 
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Відправка повідомлень користувачам.
+ * <p>
+ * Методи не чекають на відповідь Telegram: запити ставляться в чергу відправки, яка зберігає їх порядок у межах
+ * чату, а повернений результат завершується, коли всі пов'язані дії виконано.
+ */
 @Slf4j
 @Service
 public class SendMessageService {
@@ -26,6 +35,12 @@ public class SendMessageService {
     private final TelegramUserService telegramUserService;
     private final CryptoTool cryptoTool;
 
+    /**
+     * Повідомлення з інлайн клавіатурою, ID яких ще не збережено, за ID чату. Наступне повідомлення з клавіатурою
+     * прибирає клавіатуру саме з них, не чекаючи, поки ID потрапить у базу.
+     */
+    private final Map<Long, CompletableFuture<Integer>> pendingKeyboards = new ConcurrentHashMap<>();
+
     public SendMessageService(MessageSender messageSender, TelegramUserService telegramUserService, CryptoTool cryptoTool) {
         this.messageSender = messageSender;
         this.telegramUserService = telegramUserService;
@@ -35,83 +50,120 @@ public class SendMessageService {
     @Value("${link.address}")
     private String linkAddress;
 
-    public void sendMessage(Long chatId, String text) {
+    public CompletableFuture<Void> sendMessage(Long chatId, String text) {
+        return sendMessage(chatId, text, SendPriority.INTERACTIVE);
+    }
+
+    private CompletableFuture<Void> sendMessage(Long chatId, String text, SendPriority priority) {
         log.info("Відправка простого повідомлення до чату з ID: {}", chatId);
         SendMessage message = SendMessage.builder()
                 .text(text)
                 .chatId(String.valueOf(chatId))
                 .build();
-        messageSender.sendMessage(message);
+        return messageSender.sendMessageAsync(message, priority).thenAccept(messageId -> { });
     }
 
-    public void sendMessage(Long chatId, String text, InlineKeyboardMarkup inlineKeyboard) {
-        log.info("Відправка повідомлення з інлайн клавіатурою до чату з ID: {}", chatId);
-        removePreviousKeyboard(chatId);
-        Integer messageId = sendTextMessage(chatId, text, inlineKeyboard);
-        telegramUserService.saveMassageId(chatId, messageId);
+    public CompletableFuture<Void> sendMessage(Long chatId, String text, InlineKeyboardMarkup inlineKeyboard) {
+        return sendMessage(chatId, text, inlineKeyboard, SendPriority.INTERACTIVE);
     }
 
-    private Integer sendTextMessage(Long chatId, String text, InlineKeyboardMarkup inlineKeyboard) {
-        log.info("Створення повідомлення з текстом для чату з ID: {}", chatId);
+    private CompletableFuture<Void> sendMessage(Long chatId, String text, InlineKeyboardMarkup inlineKeyboard, SendPriority priority) {
+        log.info("Відправка повідомлення з інлайн клавіатурою до чату з ID: {}", chatId);
         SendMessage message = SendMessage.builder()
                 .text(text)
                 .chatId(String.valueOf(chatId))
                 .replyMarkup(inlineKeyboard)
                 .build();
-        return messageSender.sendMessage(message);
+        return sendKeyboardMessage(chatId, message, priority);
     }
 
-    private void removePreviousKeyboard(Long chatId) {
-        Optional<TelegramUserCache> telegramUserCacheOptional = telegramUserService.findById(chatId);
-        telegramUserCacheOptional.ifPresent(telegramUserCache -> {
-            if (telegramUserCache.getMassageId() != null) {
-                log.info("Видалення попередньої клавіатури для повідомлення з ID: {} у чаті з ID: {}", telegramUserCache.getMassageId(), chatId);
-                deleteInlineKeyboard(chatId, telegramUserCache.getMassageId());
+    /**
+     * Надсилає повідомлення з інлайн клавіатурою: прибирає клавіатуру з попереднього повідомлення, надсилає нове
+     * і зберігає його ID. Обидва запити ставляться в чергу одразу, а ID зберігається, щойно Telegram прийме повідомлення.
+     */
+    private CompletableFuture<Void> sendKeyboardMessage(Long chatId, SendMessage message, SendPriority priority) {
+        CompletableFuture<Integer> messageId = new CompletableFuture<>();
+        CompletableFuture<Integer> previous = pendingKeyboards.put(chatId, messageId);
+
+        // Помилка з попередньою клавіатурою не повинна заважати новому повідомленню
+        CompletableFuture<Void> removed = removePreviousKeyboard(chatId, previous, priority)
+                .exceptionally(error -> null);
+
+        messageSender.sendMessageAsync(message, priority).whenComplete((id, error) -> {
+            if (error != null) {
+                messageId.completeExceptionally(error);
             } else {
-                log.warn("Не знайдено ID повідомлення для користувача з ID: {}", chatId);
+                messageId.complete(id);
             }
         });
+        CompletableFuture<Void> saved = messageId
+                .thenAccept(id -> telegramUserService.saveMassageId(chatId, id))
+                .whenComplete((result, error) -> pendingKeyboards.remove(chatId, messageId));
+
+        return CompletableFuture.allOf(removed, saved);
     }
 
-    private void deleteInlineKeyboard(Long chatId, Integer messageId) {
+    private CompletableFuture<Void> removePreviousKeyboard(Long chatId, CompletableFuture<Integer> previous, SendPriority priority) {
+        if (previous != null) {
+            // Попереднє повідомлення ще надсилається; якщо його не вдалося надіслати, прибирати нічого
+            return previous
+                    .handle((messageId, error) -> messageId)
+                    .thenCompose(messageId -> messageId != null
+                            ? deleteInlineKeyboard(chatId, messageId, priority)
+                            : CompletableFuture.completedFuture(null));
+        }
+        Integer messageId = telegramUserService.findById(chatId)
+                .map(TelegramUserCache::getMassageId)
+                .orElse(null);
+        if (messageId == null) {
+            log.warn("Не знайдено ID повідомлення для користувача з ID: {}", chatId);
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Видалення попередньої клавіатури для повідомлення з ID: {} у чаті з ID: {}", messageId, chatId);
+        return deleteInlineKeyboard(chatId, messageId, priority);
+    }
+
+    private CompletableFuture<Void> deleteInlineKeyboard(Long chatId, Integer messageId, SendPriority priority) {
         log.info("Видалення інлайн клавіатури для повідомлення з ID: {} у чаті з ID: {}", messageId, chatId);
         EditMessageReplyMarkup editMessageReplyMarkup = EditMessageReplyMarkup.builder()
                 .chatId(String.valueOf(chatId))
                 .messageId(messageId)
                 .replyMarkup(null)
                 .build();
-        messageSender.sendMessage(editMessageReplyMarkup);
+        return messageSender.sendMessageAsync(editMessageReplyMarkup, priority);
     }
 
-    public void sendMessage(Long tgId, String text, ReplyKeyboardMarkup replyKeyboard) {
+    public CompletableFuture<Void> sendMessage(Long tgId, String text, ReplyKeyboardMarkup replyKeyboard) {
         log.info("Відправка повідомлення з клавіатурою відповіді до чату з ID: {}", tgId);
         SendMessage message = SendMessage.builder()
                 .text(text)
                 .chatId(String.valueOf(tgId))
                 .replyMarkup(replyKeyboard)
                 .build();
-        messageSender.sendMessage(message);
+        return messageSender.sendMessageAsync(message, SendPriority.INTERACTIVE).thenAccept(messageId -> { });
     }
 
-    public void sendInfoAboutReadyStatement(Statement statement) {
+    public CompletableFuture<Void> sendInfoAboutReadyStatement(Statement statement) {
         log.info("Відправка інформації про готову довідку для користувача з ID: {}", statement.getTelegramId());
-        sendMessage(
+        return sendMessage(
                 statement.getTelegramId(),
                 formatStatement(statement),
-                Keyboards.linkToMenuKeyboard());
+                Keyboards.linkToMenuKeyboard(),
+                SendPriority.BULK);
     }
 
-    public void sendInfoAboutReadyStatementWithFile(Statement statement) {
+    public CompletableFuture<Void> sendInfoAboutReadyStatementWithFile(Statement statement) {
         log.info("Відправка інформації про готову довідку для користувача з ID: {}", statement.getTelegramId());
-        sendMessage(
+        CompletableFuture<Void> info = sendMessage(
                 statement.getTelegramId(),
-                formatStatement(statement)
+                formatStatement(statement),
+                SendPriority.BULK
         );
 
         log.info("Відправка посилання на файл з ID: {} для користувача з ID: {} ", statement.getId(), statement.getTelegramId());
 
         String fileUrl = generateLink(statement.getId(), LinkType.GET_DOC);
-        sendFileUrl(statement.getTelegramId(), fileUrl);
+        return CompletableFuture.allOf(info, sendFileUrl(statement.getTelegramId(), fileUrl, SendPriority.BULK));
     }
 
     private String generateLink(Long docId, LinkType linkType) {
@@ -120,7 +172,11 @@ public class SendMessageService {
         return "http://" + linkAddress + "/" + linkType + "?id=" + hash;
     }
 
-    public void sendFileUrl(Long telegramId, String fileUrl) {
+    public CompletableFuture<Void> sendFileUrl(Long telegramId, String fileUrl) {
+        return sendFileUrl(telegramId, fileUrl, SendPriority.INTERACTIVE);
+    }
+
+    private CompletableFuture<Void> sendFileUrl(Long telegramId, String fileUrl, SendPriority priority) {
         log.info("Відправка URL файлу для користувача з ID: {}", telegramId);
         String textOfMassage = "Щоб завантажити файл із довідкою натисніть на [це посилання](" + fileUrl + ")";
 
@@ -131,9 +187,7 @@ public class SendMessageService {
                 .build();
         message.enableMarkdown(true);
 
-        removePreviousKeyboard(telegramId);
-        Integer messageId = messageSender.sendMessage(message);
-        telegramUserService.saveMassageId(telegramId, messageId);
+        return sendKeyboardMessage(telegramId, message, priority);
     }
 
     private String formatStatement(Statement statement) {
@@ -141,14 +195,13 @@ public class SendMessageService {
                 statement.toString();
     }
 
-    public void sendMessage(Long chatId, String text, ReplyKeyboardRemove replyKeyboardRemove) {
+    public CompletableFuture<Void> sendMessage(Long chatId, String text, ReplyKeyboardRemove replyKeyboardRemove) {
         log.info("Відправка повідомлення з видаленням клавіатури replyKeyboard до чату з ID: {}", chatId);
         SendMessage message = SendMessage.builder()
                 .text(text)
                 .chatId(String.valueOf(chatId))
                 .replyMarkup(replyKeyboardRemove)
                 .build();
-        messageSender.sendMessage(message);
+        return messageSender.sendMessageAsync(message, SendPriority.INTERACTIVE).thenAccept(messageId -> { });
     }
 }
-
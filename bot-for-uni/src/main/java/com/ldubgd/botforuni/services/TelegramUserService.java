@@ -78,12 +78,9 @@ public class TelegramUserService {
      */
     public void saveMassageId(Long chatId, Integer massageId) {
         log.info("Оновлення ID повідомлення для чату з ID: {}", chatId);
-        Optional<TelegramUserCache> telegramUserCacheOptional = findById(chatId);
-
-        if (telegramUserCacheOptional.isPresent()) {
-            TelegramUserCache telegramUserCache = telegramUserCacheOptional.get();
-            telegramUserCache.setMassageId(massageId);
-            save(telegramUserCache);
+        // Оновлюється лише ID повідомлення: метод викликається після відправки, паралельно з обробкою оновлень
+        // цього ж користувача, і збереження всього об'єкта могло б перезаписати їхні зміни
+        if (telegramUserCacheRepository.updateMassageId(chatId, massageId) > 0) {
             log.info("ID повідомлення для чату з ID: {} успішно оновлено на {}", chatId, massageId);
         } else {
             log.warn("TelegramUserCache для чату з ID: {} не знайдено", chatId);
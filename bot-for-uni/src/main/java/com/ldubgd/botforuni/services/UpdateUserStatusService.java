@@ -12,7 +12,11 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -64,6 +68,8 @@ public class UpdateUserStatusService {
         if (!infoList.isEmpty()) {
             log.info("Знайдено {} нових заявок для оновлення статусу.", infoList.size());
 
+            // Усі сповіщення ставляться в чергу відправки одразу, а статус оновлюється лише для тих, що дійшли
+            Map<StatementInfo, CompletableFuture<Void>> notifications = new IdentityHashMap<>();
             infoList.forEach(statementInfo -> {
                 try {
                     Statement statement = statementInfo.getStatement();
@@ -79,13 +85,10 @@ public class UpdateUserStatusService {
                         log.info("Відправка повідомлення для користувача з id: {}", telegramUser.getTelegramId());
 
                         if (statementInfoService.checkFileExistence(statement.getId())) {
-                            sendMessageService.sendInfoAboutReadyStatementWithFile(statement);
-                            log.info("Повідомлення з файлом надіслано для заяви з id: {}", statement.getId());
+                            notifications.put(statementInfo, sendMessageService.sendInfoAboutReadyStatementWithFile(statement));
                         } else {
-                            sendMessageService.sendInfoAboutReadyStatement(statement);
-                            log.info("Повідомлення без файлу надіслано для заяви з id: {}", statement.getId());
+                            notifications.put(statementInfo, sendMessageService.sendInfoAboutReadyStatement(statement));
                         }
-                        readyInfoList.add(statementInfo);
                     } else {
                         log.info("Користувач з id: {} вже має позицію.", telegramUser.getTelegramId());
                     }
@@ -94,6 +97,17 @@ public class UpdateUserStatusService {
                 }
             });
 
+            notifications.forEach((statementInfo, notification) -> {
+                try {
+                    notification.join();
+                    log.info("Повідомлення надіслано для заяви з id: {}", statementInfo.getStatement().getId());
+                    readyInfoList.add(statementInfo);
+                } catch (CompletionException e) {
+                    log.error("Помилка під час відправки повідомлення про готовність заяви з id: {}",
+                            statementInfo.getStatement().getId(), e.getCause());
+                }
+            });
+
             // Оновлюємо статус для готових заявок
             if (!readyInfoList.isEmpty()) {
                 readyInfoList.forEach(statementInfo -> statementInfo.setReady(true));
@@ -0,0 +1,55 @@
+package com.ldubgd.botforuni.utils;
+
+/**
+ * Лімітер "відро з токенами": відро вміщує до {@code capacity} токенів і рівномірно поповнюється,
+ * а кожна дозволена дія забирає один токен.
+ * <p>
+ * Клас не потокобезпечний — ним користуються під зовнішнім блокуванням.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param capacity    найбільша кількість дій поспіль
+     * @param refillNanos час, за який порожнє відро наповнюється повністю
+     */
+    public TokenBucket(int capacity, long refillNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = capacity / (double) refillNanos;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * @return 0, якщо токен є, інакше кількість наносекунд до появи наступного токена
+     */
+    public long nanosUntilAvailable(long now) {
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Забирає токен; перед цим має бути перевірено {@link #nanosUntilAvailable(long)}.
+     */
+    public void consume(long now) {
+        refill(now);
+        tokens -= 1;
+    }
+
+    /**
+     * @return {@code true}, якщо відро повне, тобто останнім часом дій не було
+     */
+    public boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
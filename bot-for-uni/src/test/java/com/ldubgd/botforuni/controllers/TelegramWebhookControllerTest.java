@@ -0,0 +1,158 @@
+package com.ldubgd.botforuni.controllers;
+
+import com.ldubgd.botforuni.processors.DefaultProcessor;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Перевіряє режим webhook проти підробленого сервера Bot API: бот реєструє webhook, приймає оновлення лише з
+ * правильним секретом, відповідає 503 при переповненій смузі та надсилає відповіді через Bot API.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bot.mode=webhook",
+        "bot.webhook.url=https://bot.example.com",
+        "bot.webhook.secret=webhook-secret",
+        "bot.dispatcher.lanes=1",
+        "bot.dispatcher.queue-capacity=1",
+        "telegram.bot.username=test_bot",
+        "telegram.bot.token=123:TEST",
+        "salt=test-salt",
+        "link.address=localhost:8000",
+        "spring.datasource.url=jdbc:h2:mem:bot;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class TelegramWebhookControllerTest {
+
+    private static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+    private static final MockWebServer TELEGRAM = startTelegram();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Value("${bot.webhook.path}")
+    private String webhookPath;
+
+    @SpyBean
+    private DefaultProcessor processor;
+
+    @DynamicPropertySource
+    static void telegramProperties(DynamicPropertyRegistry registry) {
+        registry.add("bot.api-url", () -> TELEGRAM.url("/bot").toString());
+    }
+
+    @AfterAll
+    static void stopTelegram() throws IOException {
+        TELEGRAM.shutdown();
+    }
+
+    @Test
+    void updateWithWrongSecretIsRejected() {
+        assertThat(post(update(1, 100, "/start"), "wrong-secret").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(post(update(2, 100, "/start"), null).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void acceptedUpdateIsAnsweredThroughTheBotApi() throws InterruptedException {
+        assertThat(post(update(3, 200, "/start"), "webhook-secret").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        RecordedRequest request;
+        do {
+            request = TELEGRAM.takeRequest(10, TimeUnit.SECONDS);
+            assertThat(request).as("sendMessage to chat 200").isNotNull();
+        } while (!methodOf(request).equals("sendmessage"));
+        assertThat(request.getPath()).startsWith("/bot123:TEST/");
+        assertThat(request.getBody().readUtf8()).contains("\"chat_id\":\"200\"");
+    }
+
+    @Test
+    void updateIsRefusedWhenTheLaneIsFull() throws InterruptedException {
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(processor).process(any());
+
+        try {
+            assertThat(post(update(4, 300, "hello"), "webhook-secret").getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(processing.await(10, TimeUnit.SECONDS)).isTrue();
+            // Потік смуги зайнятий, тож наступне оновлення займає єдине місце в черзі
+            assertThat(post(update(5, 300, "hello"), "webhook-secret").getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(post(update(6, 300, "hello"), "webhook-secret").getStatusCode())
+                    .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private ResponseEntity<Void> post(String update, String secret) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (secret != null) {
+            headers.set(SECRET_HEADER, secret);
+        }
+        return restTemplate.postForEntity(webhookPath, new HttpEntity<>(update, headers), Void.class);
+    }
+
+    private static String update(int updateId, long chatId, String text) {
+        return "{\"update_id\":" + updateId + ",\"message\":{\"message_id\":" + updateId + ",\"date\":0,"
+                + "\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"},"
+                + "\"from\":{\"id\":" + chatId + ",\"is_bot\":false,\"first_name\":\"Test\"},"
+                + "\"text\":\"" + text + "\"}}";
+    }
+
+    private static String methodOf(RecordedRequest request) {
+        String path = request.getPath();
+        return path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static MockWebServer startTelegram() {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String result = methodOf(request).equals("setwebhook")
+                        ? "true"
+                        : "{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"}}";
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"ok\":true,\"result\":" + result + "}");
+            }
+        });
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return server;
+    }
+}
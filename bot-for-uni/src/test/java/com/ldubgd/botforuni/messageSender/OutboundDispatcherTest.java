@@ -0,0 +1,71 @@
+package com.ldubgd.botforuni.messageSender;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboundDispatcherTest {
+
+    /**
+     * Пул клієнта бота з одним потоком, як {@code DefaultBotOptions.maxThreads} = {@code max-in-flight} = 1.
+     */
+    private final ExecutorService client = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "telegram-client"));
+    private final AbsSender telegramBot = mock(AbsSender.class);
+    private OutboundDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(telegramBot.executeAsync(any(SendMessage.class)))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(Message::new, client));
+        dispatcher = new OutboundDispatcher(telegramBot, new SimpleMeterRegistry(), 1000, 100, Duration.ofMillis(1),
+                1, 1, 1, Duration.ofMillis(1), 1);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+        client.shutdownNow();
+    }
+
+    @Test
+    void dependentActionsDoNotRunOnTheClientThread() throws Exception {
+        String thread = dispatcher.submit("1", message("1"), SendPriority.INTERACTIVE)
+                .thenApply(result -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(thread).startsWith("outbound-callback-");
+    }
+
+    @Test
+    void blockingSubmitFromACallbackDoesNotStallTheQueue() throws Exception {
+        CompletableFuture<Message> first = dispatcher.submit("1", message("1"), SendPriority.INTERACTIVE);
+        // Заповнює чергу, поки перший запит виконується
+        CompletableFuture<Message> other = dispatcher.submit("2", message("2"), SendPriority.INTERACTIVE);
+        // Два запити з колбеку: другий чекає на місце в черзі, яке звільниться, лише коли клієнт виконає інші запити
+        CompletableFuture<Void> followUps = first.thenCompose(result -> CompletableFuture.allOf(
+                dispatcher.submit("1", message("1"), SendPriority.INTERACTIVE),
+                dispatcher.submit("1", message("1"), SendPriority.INTERACTIVE)));
+
+        CompletableFuture.allOf(other, followUps).get(5, TimeUnit.SECONDS);
+    }
+
+    private static SendMessage message(String chatId) {
+        return SendMessage.builder().chatId(chatId).text("text").build();
+    }
+}
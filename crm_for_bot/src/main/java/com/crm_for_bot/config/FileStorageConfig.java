@@ -0,0 +1,56 @@
+package com.crm_for_bot.config;
+
+import com.ldubgd.utils.storage.DatabaseFileStorage;
+import com.ldubgd.utils.storage.FileStorage;
+import com.ldubgd.utils.storage.LocalFileStorage;
+import com.ldubgd.utils.storage.RoutingFileStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Configuration of the storage of statement documents.
+ * New uploads go to the storage selected by {@code file-storage.type}; documents are read from whichever
+ * storage their key belongs to, so both storages stay readable during a migration.
+ */
+@Configuration
+public class FileStorageConfig {
+
+    /**
+     * The storage of new uploads: {@code db} for the {@code file_data} table or {@code local} for the filesystem.
+     */
+    @Value("${file-storage.type:db}")
+    private String storageType;
+
+    @Value("${file-storage.local-root:./file-storage}")
+    private Path localRoot;
+
+    /**
+     * Creates the database storage. Its connections join the current Spring transaction,
+     * so the contents are written atomically with the file metadata.
+     *
+     * @param dataSource the application data source
+     * @return the database storage
+     */
+    @Bean
+    public DatabaseFileStorage databaseFileStorage(DataSource dataSource) {
+        return new DatabaseFileStorage(new TransactionAwareDataSourceProxy(dataSource));
+    }
+
+    @Bean
+    public LocalFileStorage localFileStorage() throws IOException {
+        return new LocalFileStorage(localRoot);
+    }
+
+    @Bean
+    public FileStorage fileStorage(DatabaseFileStorage databaseFileStorage, LocalFileStorage localFileStorage) {
+        FileStorage writeStorage = "local".equalsIgnoreCase(storageType) ? localFileStorage : databaseFileStorage;
+        return new RoutingFileStorage(writeStorage, List.of(localFileStorage, databaseFileStorage));
+    }
+}
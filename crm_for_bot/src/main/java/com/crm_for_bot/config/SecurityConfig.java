@@ -1,15 +1,18 @@
 package com.crm_for_bot.config;
 
 import com.crm_for_bot.filter.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -51,6 +54,8 @@ public class SecurityConfig {
 
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
+                                // Streamed responses are completed on an async dispatch that was already authorized
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                                 .requestMatchers("/", "/api/auth/login", "/api/auth/revoke", "/api/jwt/",
                                         "/api/auth/token", "/swagger-ui.html", "/v3/api-docs/**",
                                         "/swagger-ui/**", "/webjars/swagger-ui/**", "/h2-console/**")
@@ -63,7 +68,10 @@ public class SecurityConfig {
                 .addFilterAfter(jwtFilter, UsernamePasswordAuthenticationFilter.class)
 
                 .exceptionHandling(exceptionHandling ->
-                        exceptionHandling.accessDeniedPage("/403")
+                        exceptionHandling
+                                // An expired access token must answer 401, so the dashboard refreshes it
+                                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                                .accessDeniedPage("/403")
                 );
 
         return http.build();
@@ -2,15 +2,26 @@ package com.crm_for_bot.controller;
 
 import com.crm_for_bot.entity.JwtRequest;
 import com.crm_for_bot.entity.JwtResponse;
+import com.crm_for_bot.entity.RefreshJwtRequest;
+import com.crm_for_bot.exception.AuthException;
+import com.crm_for_bot.exception.LoginThrottledException;
 import com.crm_for_bot.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Controller for handling authentication-related endpoints.
- * Provides methods for user login and token revocation.
+ * Provides methods for user login, token refresh and token revocation.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -24,20 +35,74 @@ public class AuthController {
     private final AuthService authService;
 
     /**
-     * Handles user login requests.
+     * Handles user login requests. The password is verified on the login pool, so the request thread is released
+     * while the login waits. Wrong credentials get 401 Unauthorized, too many attempts 429 Too Many Requests and
+     * a saturated pool 503 Service Unavailable.
      *
      * @param authRequest the request payload containing username and password.
-     * @return ResponseEntity<JwtResponse> - the response containing the JWT token if login is successful.
+     * @param request the HTTP request, used for the client address.
+     * @return CompletableFuture<ResponseEntity<JwtResponse>> - the response containing the JWT token if login is successful.
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@RequestBody JwtRequest authRequest) {
+    public CompletableFuture<ResponseEntity<JwtResponse>> login(@RequestBody JwtRequest authRequest,
+                                                                HttpServletRequest request) {
         log.info("Attempting login for user: {}", authRequest.getUsername());
         try {
-            final JwtResponse token = authService.login(authRequest);
-            log.info("Login successful for user: {}", authRequest.getUsername());
-            return ResponseEntity.ok(token);
+            return authService.loginAsync(authRequest, request.getRemoteAddr())
+                    .thenApply(token -> {
+                        log.info("Login successful for user: {}", authRequest.getUsername());
+                        return ResponseEntity.ok(token);
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof AuthException) {
+                            log.warn("Login rejected for user: {}: {}", authRequest.getUsername(), cause.getMessage());
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+                        }
+                        if (cause instanceof TimeoutException) {
+                            log.warn("Login timed out for user: {}", authRequest.getUsername());
+                            return unavailable();
+                        }
+                        log.error("Login failed for user: {}", authRequest.getUsername(), cause);
+                        return ResponseEntity.status(500).body(null);
+                    });
+        } catch (AuthException e) {
+            log.warn("Login rejected: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null));
+        } catch (LoginThrottledException e) {
+            log.warn("Login throttled: {}", e.getMessage());
+            long retryAfter = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                    .build());
+        } catch (RejectedExecutionException e) {
+            log.warn("Login rejected for user: {}, login pool is saturated", authRequest.getUsername());
+            return CompletableFuture.completedFuture(unavailable());
         } catch (Exception e) {
             log.error("Login failed for user: {}", authRequest.getUsername(), e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(500).body(null));
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * Clients call this when the access token expires instead of logging in with the password again.
+     *
+     * @param request the request payload containing the refresh token.
+     * @return ResponseEntity<JwtResponse> - the response containing the new tokens, or 401 if the refresh token is not accepted.
+     */
+    @PostMapping("/token")
+    public ResponseEntity<JwtResponse> refreshToken(@RequestBody RefreshJwtRequest request) {
+        if (request.getRefreshToken() == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        try {
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+        } catch (AuthException e) {
+            log.warn("Token refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
+        } catch (Exception e) {
+            log.error("Token refresh failed", e);
             return ResponseEntity.status(500).body(null);
         }
     }
@@ -60,4 +125,10 @@ public class AuthController {
             return ResponseEntity.badRequest().body("Token was not revoked");
         }
     }
+
+    private static ResponseEntity<JwtResponse> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
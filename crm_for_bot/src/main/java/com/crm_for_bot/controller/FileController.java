@@ -1,6 +1,13 @@
 package com.crm_for_bot.controller;
 
+import com.crm_for_bot.dto.FileUploadResultDto;
+import com.crm_for_bot.dto.UploadSessionDto;
+import com.crm_for_bot.exception.RecourseNotFoundException;
+import com.crm_for_bot.exception.UploadConflictException;
+import com.crm_for_bot.service.BulkFileUploadService;
+import com.crm_for_bot.service.ChunkedUploadService;
 import com.crm_for_bot.service.FileService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -8,6 +15,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/files")
 @Slf4j
@@ -16,6 +25,12 @@ public class FileController {
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private BulkFileUploadService bulkFileUploadService;
+
     @PostMapping("/upload/{statementId}")
     public ResponseEntity<String> uploadFile(@PathVariable Long statementId, @RequestParam("file") MultipartFile file) {
         log.info("Uploading file: {} for statement: {}", file.getOriginalFilename(), statementId);
@@ -27,10 +42,164 @@ public class FileController {
 
             fileService.saveFile(file, statementId);
             return ResponseEntity.status(HttpStatus.OK).body("File uploaded successfully");
+        } catch (RecourseNotFoundException e) {
+            log.error("File upload error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (Exception e) {
             log.error("File upload error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    /**
+     * Attaches the files of a ZIP archive to statements. The request body is the archive itself
+     * ({@code Content-Type: application/zip}); every file name has to start with the ID of its statement,
+     * e.g. {@code 1234.pdf} or {@code 1234_passport.pdf}.
+     *
+     * @param request the request whose body holds the archive
+     * @return ResponseEntity<?> - the result of every file of the archive, or an error message.
+     */
+    @PostMapping("/upload/bulk")
+    public ResponseEntity<?> uploadArchive(HttpServletRequest request) {
+        log.info("Uploading archive of statement files");
+
+        try {
+            List<FileUploadResultDto> results = bulkFileUploadService.uploadArchive(request.getInputStream());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            log.error("Archive upload error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a resumable upload of a file for a statement.
+     * The file is then sent in chunks with {@code PUT /api/files/uploads/{uploadId}} and attached to the statement
+     * with {@code POST /api/files/uploads/{uploadId}/complete}; it is not limited by the multipart size cap.
+     *
+     * @param statementId the ID of the statement the file belongs to
+     * @param fileName the original name of the file
+     * @param fileType the content type of the file, detected from the file name when omitted
+     * @param size the total size of the file in bytes
+     * @return ResponseEntity<?> - the new upload session, or an error message.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<?> startUpload(@RequestParam Long statementId,
+                                         @RequestParam String fileName,
+                                         @RequestParam(required = false) String fileType,
+                                         @RequestParam long size) {
+        log.info("Starting upload of file: {} ({} bytes) for statement: {}", fileName, size, statementId);
+
+        try {
+            UploadSessionDto session = chunkedUploadService.init(statementId, fileName, fileType, size);
+            return ResponseEntity.status(HttpStatus.CREATED).body(session);
+        } catch (RecourseNotFoundException e) {
+            log.error("Upload start error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("Upload start error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload start error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a chunk of a resumable upload. The request body is the raw chunk.
+     * A chunk whose offset does not match the bytes received so far is rejected with 409 Conflict;
+     * the client then reads the session and resumes from its {@code offset}.
+     *
+     * @param uploadId the identifier of the upload
+     * @param offset the position of the chunk in the file
+     * @param request the request whose body holds the chunk
+     * @return ResponseEntity<?> - the upload session after the chunk, or an error message.
+     */
+    @PutMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @RequestParam long offset,
+                                         HttpServletRequest request) {
+        try {
+            UploadSessionDto session = chunkedUploadService.writeChunk(uploadId, offset, request.getInputStream());
+            return ResponseEntity.ok(session);
+        } catch (RecourseNotFoundException e) {
+            log.error("Chunk upload error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (UploadConflictException e) {
+            log.warn("Chunk upload conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("Chunk upload error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Chunk upload error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the state of a resumable upload, including the offset to continue from.
+     *
+     * @param uploadId the identifier of the upload
+     * @return ResponseEntity<?> - the upload session, or an error message.
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.getSession(uploadId));
+        } catch (RecourseNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload status error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Completes a resumable upload: verifies the SHA-256 checksum of the received file and attaches it to the statement.
+     *
+     * @param uploadId the identifier of the upload
+     * @param sha256 the hex-encoded SHA-256 digest of the whole file
+     * @return ResponseEntity<String> - the response indicating the result of the upload.
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<String> completeUpload(@PathVariable String uploadId, @RequestParam String sha256) {
+        log.info("Completing upload: {}", uploadId);
+
+        try {
+            chunkedUploadService.complete(uploadId, sha256);
+            return ResponseEntity.status(HttpStatus.OK).body("File uploaded successfully");
+        } catch (RecourseNotFoundException e) {
+            log.error("Upload completion error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (UploadConflictException e) {
+            log.warn("Upload completion conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            log.error("Upload completion error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload completion error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels a resumable upload and discards the chunks received for it.
+     *
+     * @param uploadId the identifier of the upload
+     * @return ResponseEntity<String> - the response indicating the result of the operation.
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<String> abortUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (RecourseNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Upload abort error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
 }
@@ -1,14 +1,30 @@
 package com.crm_for_bot.controller;
 
+import com.crm_for_bot.dto.BulkStatusUpdateDto;
+import com.crm_for_bot.dto.StatementCounterDto;
 import com.crm_for_bot.dto.StatementDto;
+import com.crm_for_bot.dto.StatementPageDto;
+import com.crm_for_bot.dto.StatementSearchPageDto;
+import com.crm_for_bot.dto.StatusUpdateResultDto;
 import com.crm_for_bot.exception.RecourseNotFoundException;
+import com.crm_for_bot.exception.StatementStatusConflictException;
+import com.crm_for_bot.service.StatementEventService;
+import com.crm_for_bot.service.StatementExportService;
 import com.crm_for_bot.service.StatementService;
+import com.crm_for_bot.util.ExportFormat;
 import com.crm_for_bot.util.StatementStatus;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,26 +39,72 @@ import java.util.List;
 @Slf4j
 public class StatementController {
 
+    /**
+     * The maximum number of statements accepted by a single bulk status update.
+     */
+    private static final int MAX_BULK_UPDATE_SIZE = 1000;
+
+    /**
+     * Lets browsers keep listings but revalidate them with their ETag on every request.
+     */
+    private static final CacheControl LISTING_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     /**
      * Service for handling statement operations.
      */
     private final StatementService statementService;
 
+    /**
+     * Service for exporting statements to spreadsheet files.
+     */
+    private final StatementExportService statementExportService;
+
+    /**
+     * Service for the feed of statement changes.
+     */
+    private final StatementEventService statementEventService;
+
     /**
      * Retrieves all statements with a status of false.
      *
      * @return ResponseEntity<List<StatementDto>> - the response containing a list of statements with status false, or no content if none found.
      */
     @GetMapping
-    public ResponseEntity<List<StatementDto>> getAllStatements() {
+    public ResponseEntity<List<StatementDto>> getAllStatements(WebRequest webRequest) {
+        if (isListingNotModified(webRequest, StatementStatus.PENDING, null)) {
+            log.info("Statements with status PENDING not modified");
+            return null;
+        }
         log.info("Fetching all statements with status false");
         List<StatementDto> statements = statementService.getStatementsInfoWithStatusPending();
         if (statements.isEmpty()) {
             log.warn("No statements found with status false");
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().cacheControl(LISTING_CACHE_CONTROL).build();
         }
         log.info("Retrieved {} statements", statements.size());
-        return ResponseEntity.ok(statements);
+        return ResponseEntity.ok().cacheControl(LISTING_CACHE_CONTROL).body(statements);
+    }
+
+    /**
+     * Retrieves a page of statements with a status of PENDING using keyset pagination.
+     *
+     * @param after the id of the last statement of the previous page; omit for the first page.
+     * @param limit the maximum number of statements in the page.
+     * @return ResponseEntity<StatementPageDto> - the response containing the page and the cursor for the next one.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<StatementPageDto> getAllStatementsPage(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest) {
+        if (isListingNotModified(webRequest, StatementStatus.PENDING, null)) {
+            log.info("Page of pending statements after: {} not modified", after);
+            return null;
+        }
+        log.info("Fetching page of pending statements after: {} with limit: {}", after, limit);
+        StatementPageDto page = statementService.getStatementsInfoWithStatusPending(after, limit);
+        log.info("Retrieved {} statements, hasMore: {}", page.getItems().size(), page.isHasMore());
+        return ResponseEntity.ok().cacheControl(LISTING_CACHE_CONTROL).body(page);
     }
 
 
@@ -50,16 +112,21 @@ public class StatementController {
      * Marks a statement as "IN_PROGRESS" based on its ID.
      *
      * @param statementId the ID of the statement to update.
+     * @param force whether to apply the status even if the statement has already moved past it.
      * @return ResponseEntity<String> - the response indicating the result of the update operation.
      */
     @PutMapping("{id}/in-progress") //
-    public ResponseEntity<String> markStatementInProgress(@PathVariable("id") Long statementId) {
+    public ResponseEntity<String> markStatementInProgress(@PathVariable("id") Long statementId,
+                                                          @RequestParam(value = "force", defaultValue = "false") boolean force) {
         log.info("Marking statement ID: {} as IN_PROGRESS", statementId);
         try {
-            statementService.updateStatementStatus(statementId, StatementStatus.IN_PROGRESS);
+            statementService.updateStatementStatus(statementId, StatementStatus.IN_PROGRESS, force);
         } catch (RecourseNotFoundException e) {
             log.error("Statement with ID {} not found", statementId, e);
             return ResponseEntity.status(404).body("Statement not found!");
+        } catch (StatementStatusConflictException e) {
+            log.warn("Statement ID: {} was not marked as IN_PROGRESS: {}", statementId, e.getMessage());
+            return ResponseEntity.status(409).body(e.getMessage());
         } catch (Exception e) {
             log.error("Failed to mark statement as IN_PROGRESS for ID: {}", statementId, e);
             return ResponseEntity.status(500).body("Failed to update statement status!");
@@ -72,16 +139,21 @@ public class StatementController {
      * Marks a statement as "READY" based on its ID.
      *
      * @param statementId the ID of the statement to update.
+     * @param force whether to apply the status even if the statement is not in progress.
      * @return ResponseEntity<String> - the response indicating the result of the update operation.
      */
     @PutMapping("{id}/ready")
-    public ResponseEntity<String> markStatementReady(@PathVariable("id") Long statementId) { //
+    public ResponseEntity<String> markStatementReady(@PathVariable("id") Long statementId,
+                                                     @RequestParam(value = "force", defaultValue = "false") boolean force) { //
         log.info("Marking statement ID: {} as READY", statementId);
         try {
-            statementService.updateStatementStatus(statementId, StatementStatus.READY);
+            statementService.updateStatementStatus(statementId, StatementStatus.READY, force);
         } catch (RecourseNotFoundException e) {
             log.error("Statement with ID {} not found", statementId, e);
             return ResponseEntity.status(404).body("Statement not found!");
+        } catch (StatementStatusConflictException e) {
+            log.warn("Statement ID: {} was not marked as READY: {}", statementId, e.getMessage());
+            return ResponseEntity.status(409).body(e.getMessage());
         } catch (Exception e) {
             log.error("Failed to mark statement as READY for ID: {}", statementId, e);
             return ResponseEntity.status(500).body("Failed to update statement status!");
@@ -90,13 +162,50 @@ public class StatementController {
         return ResponseEntity.ok("Statement marked as READY successfully!");
     }
 
+    /**
+     * Sets the status of several statements in a single update.
+     *
+     * Statements whose current status does not allow the transition are reported as conflicts unless forced.
+     *
+     * @param request the IDs of the statements and the status to set.
+     * @param force whether to apply the status regardless of the current status.
+     * @return ResponseEntity<?> - the response containing the outcome for every requested ID.
+     */
+    @PutMapping("/status")
+    public ResponseEntity<?> updateStatementsStatus(@RequestBody BulkStatusUpdateDto request,
+                                                    @RequestParam(value = "force", defaultValue = "false") boolean force) {
+        if (request.getIds() == null || request.getIds().isEmpty() || request.getStatus() == null) {
+            log.warn("Bad bulk status update request: ids and status are required");
+            return ResponseEntity.badRequest().body("Statement ids and status are required!");
+        }
+        if (request.getIds().size() > MAX_BULK_UPDATE_SIZE) {
+            log.warn("Bulk status update of {} statements exceeds the limit of {}", request.getIds().size(), MAX_BULK_UPDATE_SIZE);
+            return ResponseEntity.badRequest().body("At most " + MAX_BULK_UPDATE_SIZE + " statements can be updated at once!");
+        }
+
+        log.info("Marking {} statements as {}", request.getIds().size(), request.getStatus());
+        try {
+            List<StatusUpdateResultDto> results = statementService.updateStatementsStatus(request.getIds(), request.getStatus(), force);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            log.error("Failed to mark statements as {}", request.getStatus(), e);
+            return ResponseEntity.status(500).body("Failed to update statement status!");
+        }
+    }
+
     @GetMapping("/statusAndFaculty") //
     public ResponseEntity<List<StatementDto>> getStatementsByStatusAndFaculty(
             @RequestParam(value = "status", required = false) StatementStatus status,
-            @RequestParam(value = "faculty", required = false) String faculty) {
+            @RequestParam(value = "faculty", required = false) String faculty,
+            WebRequest webRequest) {
 
         log.info("Received request to get statements with status: {} and faculty: {}", status, faculty);
 
+        if (status != null && isListingNotModified(webRequest, status, faculty)) {
+            log.info("Statements with status: {} and faculty: {} not modified", status, faculty);
+            return null;
+        }
+
         List<StatementDto> statements = new ArrayList<>();
 
         if (status != null) {
@@ -106,11 +215,108 @@ public class StatementController {
 
         if (statements.isEmpty()) {
             log.warn("No statements found for status: {} and faculty: {}", status, faculty);
-            return ResponseEntity.ok(new ArrayList<>());
+            return ResponseEntity.ok().cacheControl(LISTING_CACHE_CONTROL).body(new ArrayList<>());
         }
 
         log.info("Successfully retrieved {} statements.", statements.size());
-        return ResponseEntity.ok(statements);
+        return ResponseEntity.ok().cacheControl(LISTING_CACHE_CONTROL).body(statements);
+    }
+
+    /**
+     * Retrieves a page of statements filtered by status and faculty using keyset pagination.
+     *
+     * @param status the status to filter by.
+     * @param faculty the faculty to filter by.
+     * @param after the id of the last statement of the previous page; omit for the first page.
+     * @param limit the maximum number of statements in the page.
+     * @return ResponseEntity<StatementPageDto> - the response containing the page and the cursor for the next one.
+     */
+    @GetMapping("/statusAndFaculty/page")
+    public ResponseEntity<StatementPageDto> getStatementsByStatusAndFacultyPage(
+            @RequestParam(value = "status") StatementStatus status,
+            @RequestParam(value = "faculty", required = false) String faculty,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest) {
+        if (isListingNotModified(webRequest, status, faculty)) {
+            log.info("Page of statements with status: {} and faculty: {} after: {} not modified", status, faculty, after);
+            return null;
+        }
+        log.info("Fetching page of statements with status: {} and faculty: {} after: {} with limit: {}",
+                status, faculty, after, limit);
+        StatementPageDto page = statementService.getStatementsInfoByStatusAndFaculty(status, faculty, after, limit);
+        log.info("Retrieved {} statements, hasMore: {}", page.getItems().size(), page.isHasMore());
+        return ResponseEntity.ok().cacheControl(LISTING_CACHE_CONTROL).body(page);
+    }
+
+    /**
+     * Checks the client's If-None-Match against the current version of a listing, without querying the database.
+     * The version is also set as the ETag of the response; when this returns {@code true} the response is a 304.
+     *
+     * @return {@code true} if the client's copy of the listing is up to date
+     */
+    private boolean isListingNotModified(WebRequest webRequest, StatementStatus status, String faculty) {
+        return statementService.getListingVersion(status, faculty)
+                .map(version -> webRequest.checkNotModified("\"" + version + "\""))
+                .orElse(false);
+    }
+
+    /**
+     * Retrieves the number of statements per status, faculty and type of statement, for the dashboard badges.
+     *
+     * @param status the status to filter by; omit for all statuses.
+     * @param faculty the faculty to filter by; omit for all faculties.
+     * @return ResponseEntity<List<StatementCounterDto>> - the response containing the non-zero counters.
+     */
+    @GetMapping("/counters")
+    public ResponseEntity<List<StatementCounterDto>> getStatementCounters(
+            @RequestParam(value = "status", required = false) StatementStatus status,
+            @RequestParam(value = "faculty", required = false) String faculty) {
+        log.info("Fetching statement counters for status: {} and faculty: {}", status, faculty);
+        return ResponseEntity.ok(statementService.getStatementCounters(status, faculty));
+    }
+
+    /**
+     * Exports statements filtered by status and faculty as a CSV or XLSX file.
+     * The file is streamed while the rows are read from the database.
+     *
+     * @param format the format of the file, CSV by default.
+     * @param status the status to filter by; omit for all statuses.
+     * @param faculty the faculty to filter by; omit for all faculties.
+     * @return ResponseEntity<StreamingResponseBody> - the response streaming the file as an attachment.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStatements(
+            @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+            @RequestParam(value = "status", required = false) StatementStatus status,
+            @RequestParam(value = "faculty", required = false) String faculty) {
+        log.info("Exporting statements as {} with status: {} and faculty: {}", format, status, faculty);
+
+        StreamingResponseBody body = outputStream ->
+                statementExportService.exportStatements(status, faculty, format, outputStream);
+
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("statements." + format.getExtension())
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+
+    /**
+     * Subscribes to Server-Sent Events about created statements, status changes and attached files.
+     * A reconnecting client receives the events it missed, based on the standard Last-Event-ID header.
+     *
+     * @param lastEventId the id of the last event received by the client.
+     * @return SseEmitter - the emitter streaming the events.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatementEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Subscribing to statement events after: {}", lastEventId);
+        return statementEventService.subscribe(lastEventId);
     }
 
 //    @DeleteMapping("/ready")
@@ -137,18 +343,23 @@ public class StatementController {
 //        }
 //    }
 
+    /**
+     * Searches statements by full name, group name prefix or phone number prefix, best matches first.
+     *
+     * @param name the search text.
+     * @param page the zero-based page number.
+     * @param limit the maximum number of statements in the page.
+     * @return ResponseEntity<StatementSearchPageDto> - the response containing the requested page of results.
+     */
     @GetMapping("/searchByName")
-    public ResponseEntity<?> searchUsersByName(@RequestParam String name) {
-        try {
-            List<StatementDto> users = statementService.searchByName(name);
-            if (!users.isEmpty()) {
-                return ResponseEntity.ok(users);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No users found");
-            }
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while searching for users");
-        }
+    public ResponseEntity<StatementSearchPageDto> searchUsersByName(
+            @RequestParam String name,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        log.info("Searching statements by: {}, page: {}, limit: {}", name, page, limit);
+        StatementSearchPageDto results = statementService.searchByName(name, page, limit);
+        log.info("Found {} statements, hasMore: {}", results.getItems().size(), results.isHasMore());
+        return ResponseEntity.ok(results);
     }
 
 
@@ -0,0 +1,27 @@
+package com.crm_for_bot.dto;
+
+import com.crm_for_bot.util.StatementStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for changing the status of several statements at once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateDto {
+
+    /**
+     * The IDs of the statements to update.
+     */
+    private List<Long> ids;
+
+    /**
+     * The status to set.
+     */
+    private StatementStatus status;
+}
@@ -0,0 +1,34 @@
+package com.crm_for_bot.dto;
+
+import com.crm_for_bot.util.FileUploadOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object (DTO) reporting the result of a single entry of a bulk upload.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FileUploadResultDto {
+
+    /**
+     * The name of the entry in the archive.
+     */
+    private String entryName;
+
+    /**
+     * The ID of the statement the entry name maps to, or {@code null} if it does not map to one.
+     */
+    private Long statementId;
+
+    private FileUploadOutcome outcome;
+
+    /**
+     * The reason of a failure, or {@code null} if the entry was saved.
+     */
+    private String message;
+}
@@ -0,0 +1,27 @@
+package com.crm_for_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object (DTO) for the number of statements with a given status, faculty and type.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatementCounterDto {
+
+    private String status;
+
+    private String faculty;
+
+    private String typeOfStatement;
+
+    /**
+     * The number of statements in this combination.
+     */
+    private Long count;
+}
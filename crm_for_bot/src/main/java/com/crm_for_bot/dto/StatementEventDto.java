@@ -0,0 +1,45 @@
+package com.crm_for_bot.dto;
+
+import com.crm_for_bot.util.StatementEventType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) for a statement change pushed to the CRM dashboards.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatementEventDto {
+
+    /**
+     * The identifier of the event. The SSE event id is a cursor into the feed rather than this id.
+     */
+    private Long id;
+
+    /**
+     * The identifier of the changed statement.
+     */
+    private Long statementId;
+
+    private StatementEventType type;
+
+    /**
+     * The localized status of the statement at the moment of the event.
+     */
+    private String status;
+
+    /**
+     * The localized status before the change, set for status changes only.
+     */
+    private String previousStatus;
+
+    private String faculty;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.crm_for_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a single page of a keyset-paginated statement listing.
+ * The page is addressed by the id of the last statement of the previous page.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatementPageDto {
+
+    /**
+     * The statements of the page, ordered by id.
+     */
+    private List<StatementDto> items;
+
+    /**
+     * The cursor to pass as {@code after} to fetch the next page,
+     * or {@code null} if the page is empty.
+     */
+    private Long nextCursor;
+
+    /**
+     * Indicates whether more statements exist after this page.
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,39 @@
+package com.crm_for_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for a single page of statement search results.
+ * Results are ranked by relevance, so pages are addressed by number rather than by cursor.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatementSearchPageDto {
+
+    /**
+     * The statements of the page, best matches first.
+     */
+    private List<StatementDto> items;
+
+    /**
+     * The zero-based number of the page.
+     */
+    private int page;
+
+    /**
+     * The maximum number of statements in the page.
+     */
+    private int size;
+
+    /**
+     * Indicates whether more results exist after this page.
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package com.crm_for_bot.dto;
+
+import com.crm_for_bot.util.StatusUpdateOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object (DTO) reporting the result of a status change for a single statement.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatusUpdateResultDto {
+
+    /**
+     * The ID of the statement.
+     */
+    private Long id;
+
+    private StatusUpdateOutcome outcome;
+}
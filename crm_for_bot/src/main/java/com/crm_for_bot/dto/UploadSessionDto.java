@@ -0,0 +1,42 @@
+package com.crm_for_bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object (DTO) describing a resumable upload.
+ * A client that lost its connection asks for the session and continues sending chunks from {@code offset}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionDto {
+
+    /**
+     * The identifier of the upload, used in the chunk and completion requests.
+     */
+    private String uploadId;
+
+    /**
+     * The ID of the statement the file is attached to once the upload completes.
+     */
+    private Long statementId;
+
+    /**
+     * The original name of the file.
+     */
+    private String fileName;
+
+    /**
+     * The total size of the file in bytes, as declared when the upload was started.
+     */
+    private long size;
+
+    /**
+     * The number of bytes received so far; the next chunk has to start at this offset.
+     */
+    private long offset;
+}
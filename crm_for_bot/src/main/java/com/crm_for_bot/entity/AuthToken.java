@@ -0,0 +1,43 @@
+package com.crm_for_bot.entity;
+
+import com.crm_for_bot.util.TokenType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a token issued to a CRM user, used by the database token store.
+ * Only the digest of the token is kept; a user has at most one refresh token.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "auth_token")
+public class AuthToken {
+
+    /**
+     * The hex-encoded SHA-256 digest of the token.
+     */
+    @Id
+    @Column(name = "token_digest", nullable = false, length = 64)
+    private String tokenDigest;
+
+    @Column(name = "user_name", nullable = false)
+    private String userName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "token_type", nullable = false)
+    private TokenType tokenType;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -3,6 +3,10 @@ package com.crm_for_bot.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 
+/**
+ * Entity holding the contents of a file, kept apart from {@link FileInfo} so that the contents are read
+ * only by the queries that serve the file itself.
+ */
 @Entity
 @Table(name = "file_data")
 @Data
@@ -14,7 +18,6 @@ public class FileData {
 
     private byte[] data;
 
-    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "file_info_id", unique = true)
-    private FileInfo fileinfo;
+    @Column(name = "file_info_id", unique = true)
+    private Long fileInfoId;
 }
@@ -6,6 +6,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Entity holding the metadata of a file attached to a statement.
+ * It references the statement and is referenced by its {@link FileData} only by id, so loading statements or
+ * file metadata never pulls the file contents.
+ */
 @Entity
 @Table(name = "file_info")
 @Data
@@ -21,12 +26,15 @@ public class FileInfo {
 
     private String fileType;
 
-    @OneToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "statement_id", unique = true)
-    private StatementInfo statementInfo;
+    @Column(name = "statement_id", unique = true)
+    private Long statementId;
 
-    @OneToOne(mappedBy = "fileinfo", cascade = CascadeType.ALL, orphanRemoval = true)
-    private FileData fileData;
+    /**
+     * The key of the file contents in the {@link com.ldubgd.utils.storage.FileStorage};
+     * {@code null} for files uploaded before the key existed, whose contents are in {@code file_data}.
+     */
+    @Column(name = "storage_key")
+    private String storageKey;
 
     public FileInfo(Long id) {
         this.id = id;
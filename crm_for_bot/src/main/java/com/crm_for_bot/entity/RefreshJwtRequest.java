@@ -0,0 +1,17 @@
+package com.crm_for_bot.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entity representing a request for a new pair of tokens in exchange for a refresh token.
+ */
+@Getter
+@Setter
+public class RefreshJwtRequest {
+
+    /**
+     * The refresh token issued with the previous pair of tokens.
+     */
+    private String refreshToken;
+}
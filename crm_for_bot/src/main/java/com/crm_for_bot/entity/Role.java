@@ -1,8 +1,11 @@
 package com.crm_for_bot.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 
 import java.util.Set;
 
@@ -33,8 +36,12 @@ public class Role {
 
     /**
      * The set of users associated with this role.
-     * This field is fetched eagerly to ensure roles are loaded with users.
+     * This field is fetched lazily, so loading a role does not load every user holding it.
+     * It is left out of equality and serialization, since roles are compared and cached without their users.
      */
-    @ManyToMany(mappedBy = "roles", fetch = FetchType.EAGER)
+    @ManyToMany(mappedBy = "roles", fetch = FetchType.LAZY)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
     private Set<User> users;
 }
@@ -0,0 +1,55 @@
+package com.crm_for_bot.entity;
+
+import com.crm_for_bot.util.StatementEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a change of a statement.
+ * Rows are written only by database triggers, so statements created by the bot are recorded as well.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "statement_event")
+public class StatementEvent {
+
+    /**
+     * The identifier of the event. It grows monotonically and is used as the SSE event id.
+     */
+    @Id
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "statement_id", nullable = false)
+    private Long statementId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private StatementEventType eventType;
+
+    /**
+     * The status of the statement at the moment of the event.
+     */
+    @Column(name = "statement_status")
+    private String statementStatus;
+
+    /**
+     * The status of the statement before a {@code STATUS_CHANGED} event.
+     */
+    @Column(name = "previous_status")
+    private String previousStatus;
+
+    @Column(name = "faculty")
+    private String faculty;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
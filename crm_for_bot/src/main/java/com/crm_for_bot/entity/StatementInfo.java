@@ -1,5 +1,8 @@
 package com.crm_for_bot.entity;
 
+import com.crm_for_bot.dto.StatementCounterDto;
+import com.crm_for_bot.dto.StatementDto;
+import com.crm_for_bot.repository.StatementRepository;
 import com.crm_for_bot.util.StatementStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,6 +13,10 @@ import lombok.Setter;
 /**
  * Entity representing information related to statements in the application.
  * This class holds details about the readiness and status of statements.
+ * <p>
+ * The statement listings are registered here as named native queries whose rows are
+ * mapped straight into {@link StatementDto} through the {@value #STATEMENT_DTO_MAPPING} mapping;
+ * their SQL lives next to the query methods in {@link StatementRepository}.
  */
 @Getter
 @Setter
@@ -17,8 +24,84 @@ import lombok.Setter;
 @NoArgsConstructor
 @Entity
 @Table(name = "statement_info")
+@SqlResultSetMapping(
+        name = StatementInfo.STATEMENT_COUNTER_MAPPING,
+        classes = @ConstructorResult(
+                targetClass = StatementCounterDto.class,
+                columns = {
+                        @ColumnResult(name = "statement_status", type = String.class),
+                        @ColumnResult(name = "faculty", type = String.class),
+                        @ColumnResult(name = "type_of_statement", type = String.class),
+                        @ColumnResult(name = "count", type = Long.class)
+                }))
+@SqlResultSetMapping(
+        name = StatementInfo.STATEMENT_DTO_MAPPING,
+        classes = @ConstructorResult(
+                targetClass = StatementDto.class,
+                columns = {
+                        @ColumnResult(name = "id", type = Long.class),
+                        @ColumnResult(name = "full_name", type = String.class),
+                        @ColumnResult(name = "group_name", type = String.class),
+                        @ColumnResult(name = "phone_number", type = String.class),
+                        @ColumnResult(name = "type_of_statement", type = String.class),
+                        @ColumnResult(name = "faculty", type = String.class),
+                        @ColumnResult(name = "year_birthday", type = String.class),
+                        @ColumnResult(name = "statement_status", type = String.class)
+                }))
+@NamedNativeQueries({
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementsInfoWithStatusPending",
+                query = StatementRepository.PENDING_STATEMENTS_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementInfoByFaculty",
+                query = StatementRepository.STATEMENTS_BY_FACULTY_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementInfoByStatus",
+                query = StatementRepository.STATEMENTS_BY_STATUS_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementInfoByStatusAndFaculty",
+                query = StatementRepository.STATEMENTS_BY_STATUS_AND_FACULTY_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementsInfoWithStatusPendingAfter",
+                query = StatementRepository.PENDING_STATEMENTS_AFTER_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementInfoByStatusAndFacultyAfter",
+                query = StatementRepository.STATEMENTS_BY_STATUS_AND_FACULTY_AFTER_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.streamStatementsForExport",
+                query = StatementRepository.EXPORT_STATEMENTS_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.findStatementCounters",
+                query = StatementRepository.STATEMENT_COUNTERS_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_COUNTER_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.searchStatements",
+                query = StatementRepository.SEARCH_STATEMENTS_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING),
+        @NamedNativeQuery(
+                name = "StatementInfo.searchStatementsByPrefix",
+                query = StatementRepository.SEARCH_STATEMENTS_BY_PREFIX_SQL,
+                resultSetMapping = StatementInfo.STATEMENT_DTO_MAPPING)
+})
 public class StatementInfo {
 
+    /**
+     * The name of the result set mapping that builds a {@link StatementDto} from a statement row.
+     */
+    public static final String STATEMENT_DTO_MAPPING = "StatementDtoMapping";
+
+    /**
+     * The name of the result set mapping that builds a {@link StatementCounterDto} from a {@code statement_counter} row.
+     */
+    public static final String STATEMENT_COUNTER_MAPPING = "StatementCounterMapping";
+
     /**
      * The unique identifier for the statement info.
      * This field is used as the primary key and must be unique.
@@ -42,8 +125,4 @@ public class StatementInfo {
     @Column(name = "statement_status")
     private StatementStatus statementStatus;
 
-    @OneToOne(mappedBy = "statementInfo", cascade = CascadeType.ALL, orphanRemoval = true)
-    private FileInfo file;
-
-
 }
@@ -48,9 +48,10 @@ public class User {
     /**
      * The set of roles assigned to the user.
      * This field establishes a many-to-many relationship with the `Role` entity.
-     * Roles are eagerly fetched and are not included in JSON serialization to avoid circular references.
+     * Roles are fetched lazily; lookups that need them load them in the same query through an entity graph.
+     * They are not included in JSON serialization to avoid circular references.
      */
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,31 @@
+package com.crm_for_bot.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when too many login attempts were made for a username or from an address.
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+    /**
+     * The time after which the next attempt is permitted.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new {@code LoginThrottledException} with the specified detail message.
+     *
+     * @param message the detail message to be saved for later retrieval by the {@link #getMessage()} method
+     * @param retryAfter the time after which the next attempt is permitted
+     */
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,21 @@
+package com.crm_for_bot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a statement cannot be moved to the requested status from the status it is currently in,
+ * either because the transition goes backwards or because another operator changed the statement first.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class StatementStatusConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code StatementStatusConflictException} with the specified detail message.
+     *
+     * @param message the detail message to be saved for later retrieval by the {@link #getMessage()} method
+     */
+    public StatementStatusConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.crm_for_bot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a chunk of a resumable upload does not continue the data received so far,
+ * or when the upload is being written by another request.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class UploadConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code UploadConflictException} with the specified detail message.
+     *
+     * @param message the detail message to be saved for later retrieval by the {@link #getMessage()} method
+     */
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,22 +1,21 @@
 package com.crm_for_bot.filter;
 
+import com.crm_for_bot.util.JwtPrincipal;
 import com.crm_for_bot.util.JwtUtils;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * A filter that intercepts HTTP requests to extract and validate JWT tokens.
@@ -43,36 +42,38 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
-
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
-            try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken);
-            } catch (IllegalArgumentException e) {
-                logger.warn("Unable to get JWT Token");
-            } catch (Exception e) {
-                logger.warn("JWT Token has expired");
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                authenticate(requestTokenHeader.substring(7), request);
             }
         } else {
             logger.warn("JWT Token does not begin with Bearer String");
         }
+        chain.doFilter(request, response);
+    }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtTokenUtil.validateToken(jwtToken, username)) {
-                List<String> roles = jwtTokenUtil.getRolesFromToken(jwtToken);
-                List<GrantedAuthority> authorities = roles.stream()
-                        .map(role -> "ROLE_" + role)
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        username, null, authorities);
-                usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+    /**
+     * Verifies the token once and, if it is valid and still active in the token store, stores its principal
+     * in the security context.
+     *
+     * @param jwtToken the JWT token
+     * @param request the HTTP request
+     */
+    private void authenticate(String jwtToken, HttpServletRequest request) {
+        JwtPrincipal principal;
+        try {
+            principal = jwtTokenUtil.getPrincipal(jwtToken);
+        } catch (ExpiredJwtException e) {
+            logger.warn("JWT Token has expired");
+            return;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Unable to get JWT Token: " + e.getMessage());
+            return;
         }
-        chain.doFilter(request, response);
+
+        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                principal.username(), null, principal.authorities());
+        usernamePasswordAuthenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
     }
 }
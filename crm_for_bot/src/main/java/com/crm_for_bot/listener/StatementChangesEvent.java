@@ -0,0 +1,14 @@
+package com.crm_for_bot.listener;
+
+import com.crm_for_bot.entity.StatementEvent;
+
+import java.util.List;
+
+/**
+ * Application event published for every batch of statement changes read from the {@code statement_event} table,
+ * whether the change was made by this instance, another CRM instance or the bot.
+ *
+ * @param events the changes, ordered by event id
+ */
+public record StatementChangesEvent(List<StatementEvent> events) {
+}
@@ -0,0 +1,115 @@
+package com.crm_for_bot.listener;
+
+import com.crm_for_bot.service.StatementEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on the {@value #CHANNEL} PostgreSQL channel, which the statement triggers notify on every change,
+ * and hands new events to the {@link StatementEventService}.
+ * A single connection serves all subscribers; when it fails the listener reconnects and catches up from the table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatementEventListener implements SmartLifecycle {
+
+    static final String CHANNEL = "statement_events";
+
+    /**
+     * How long to wait for a notification before sending a heartbeat to the subscribers.
+     */
+    private static final int POLL_TIMEOUT_MS = 15_000;
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final DataSource dataSource;
+    private final StatementEventService statementEventService;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::listen, "statement-event-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Tells whether the listener currently receives notifications, i.e. whether the feed is up to date.
+     *
+     * @return {@code true} if the listener is connected
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                log.info("Listening for statement events on channel {}", CHANNEL);
+
+                // Catch up on the events committed while the listener was not connected
+                statementEventService.publishNewEvents();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        statementEventService.publishNewEvents();
+                    } else {
+                        statementEventService.sendHeartbeat();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.error("Statement event listener lost its connection, reconnecting in {} ms", RECONNECT_DELAY_MS, e);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to publish statement events", e);
+            } finally {
+                connected = false;
+            }
+            pause();
+        }
+    }
+
+    private void pause() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
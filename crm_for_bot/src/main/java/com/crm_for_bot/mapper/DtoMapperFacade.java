@@ -1,34 +1,14 @@
 package com.crm_for_bot.mapper;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
-import org.modelmapper.record.RecordModule;
-
 /**
  * A generic mapper facade class for converting between entities and DTOs.
- * Provides a base implementation for mapping using {@link ModelMapper} and supports custom mapping logic.
+ * Subclasses are MapStruct mappers: the field mapping in {@link #mapToEntity} and {@link #mapToDto} is generated
+ * at compile time, and custom mapping logic is added through the decorate hooks.
  *
  * @param <E> the type of the entity
  * @param <D> the type of the DTO
  */
-public class DtoMapperFacade<E, D> {
-    private final Class<E> entityClass;
-    private final Class<D> dtoClass;
-
-    private final ModelMapper modelMapper = new ModelMapper();
-
-    /**
-     * Constructs a new {@code DtoMapperFacade}.
-     *
-     * @param eClass the class of the entity
-     * @param dClass the class of the DTO
-     */
-    public DtoMapperFacade(final Class<E> eClass, final Class<D> dClass) {
-        entityClass = eClass;
-        dtoClass = dClass;
-        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
-        modelMapper.registerModule(new RecordModule());
-    }
+public abstract class DtoMapperFacade<E, D> {
 
     /**
      * Converts a DTO to an entity.
@@ -38,7 +18,7 @@ public class DtoMapperFacade<E, D> {
      * @return the corresponding entity
      */
     public E convertToEntity(final D dto) {
-        final E entity = modelMapper.map(dto, entityClass);
+        final E entity = mapToEntity(dto);
         decorateEntity(entity, dto);
         return entity;
     }
@@ -51,11 +31,27 @@ public class DtoMapperFacade<E, D> {
      * @return the corresponding DTO
      */
     public D convertToDto(final E entity) {
-        final D dto = modelMapper.map(entity, dtoClass);
+        final D dto = mapToDto(entity);
         decorateDto(dto, entity);
         return dto;
     }
 
+    /**
+     * Copies the fields of a DTO into a new entity. Implemented by the generated mapper.
+     *
+     * @param dto the DTO to be mapped
+     * @return the new entity
+     */
+    protected abstract E mapToEntity(D dto);
+
+    /**
+     * Copies the fields of an entity into a new DTO. Implemented by the generated mapper.
+     *
+     * @param entity the entity to be mapped
+     * @return the new DTO
+     */
+    public abstract D mapToDto(E entity);
+
     /**
      * Customizes the entity-to-DTO mapping.
      * Can be overridden by subclasses to provide additional mapping logic.
@@ -3,62 +3,66 @@ package com.crm_for_bot.mapper;
 import com.crm_for_bot.dto.UserDto;
 import com.crm_for_bot.entity.Role;
 import com.crm_for_bot.entity.User;
-import lombok.AllArgsConstructor;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.stereotype.Service;
-
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
- * A mapper service class for converting between {@link User} entities and {@link UserDto} DTOs.
- * This class extends {@link DtoMapperFacade} to provide custom mapping logic for {@link User} and {@link UserDto}.
+ * A mapper for converting between {@link User} entities and {@link UserDto} DTOs.
+ * This class extends {@link DtoMapperFacade}; MapStruct generates the implementation as a Spring bean.
  */
-@Service
-public class UserDtoMapper extends DtoMapperFacade<User, UserDto> {
+@Mapper(componentModel = "spring")
+public abstract class UserDtoMapper extends DtoMapperFacade<User, UserDto> {
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    protected PasswordEncoder passwordEncoder;
 
     /**
-     * Constructs a new {@code UserDtoMapper}.
-     * Initializes the base class with {@link User} and {@link UserDto} classes.
+     * Copies the username of a {@link UserDto} into a new {@link User}.
+     * The password and roles are not copied: the password is encoded in {@link #decorateEntity},
+     * and roles are resolved by the caller.
+     *
+     * @param dto the {@link UserDto} to be mapped
+     * @return the new {@link User} entity
      */
-    public UserDtoMapper() {
-        super(User.class, UserDto.class);
-    }
+    @Override
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "userName", source = "username")
+    @Mapping(target = "encryptedPassword", ignore = true)
+    @Mapping(target = "roles", ignore = true)
+    protected abstract User mapToEntity(UserDto dto);
+
+    /**
+     * Converts a {@link User} entity to a {@link UserDto} DTO, with the role names as roles.
+     *
+     * @param user the {@link User} entity to be converted
+     * @return the corresponding {@link UserDto} DTO
+     */
+    @Override
+    @Mapping(target = "username", source = "userName")
+    @Mapping(target = "password", source = "encryptedPassword")
+    public abstract UserDto mapToDto(User user);
 
     /**
-     * Customizes the entity-to-DTO mapping.
-     * Encodes the password and sets roles for the {@link User} entity.
+     * Customizes the DTO-to-entity mapping.
+     * Encodes the password of the {@link User} entity.
      *
      * @param user the {@link User} entity to be decorated
      * @param dto the {@link UserDto} to be mapped
      */
     @Override
     protected void decorateEntity(User user, UserDto dto) {
-        user.setUserName(dto.getUsername());
         user.setEncryptedPassword(passwordEncoder.encode(dto.getPassword()));
-        Set<Role> roles = user.getRoles();
-        user.setRoles(roles);
     }
 
     /**
-     * Converts a {@link User} entity to a {@link UserDto} DTO.
-     * Extracts roles and sets them in the DTO.
+     * Maps a role to its name; used for the role set of {@link #mapToDto}.
      *
-     * @param user the {@link User} entity to be converted
-     * @return the corresponding {@link UserDto} DTO
+     * @param role the role
+     * @return the name of the role
      */
-    public UserDto mapToDto(User user) {
-        UserDto userDto = new UserDto();
-        userDto.setUsername(user.getUserName());
-        userDto.setPassword(user.getEncryptedPassword());
-        Set<String> roles = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
-        userDto.setRoles(roles);
-        return userDto;
+    protected String roleName(Role role) {
+        return role.getName();
     }
 }
@@ -0,0 +1,94 @@
+package com.crm_for_bot.repository;
+
+import com.crm_for_bot.entity.AuthToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AuthTokenRepository extends JpaRepository<AuthToken, String> {
+
+    /**
+     * Replaces the refresh token of a user.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO auth_token (token_digest, user_name, token_type, expires_at, created_at) " +
+            "VALUES (:digest, :userName, 'REFRESH', :expiresAt, :now) " +
+            "ON CONFLICT (user_name) WHERE token_type = 'REFRESH' DO UPDATE SET " +
+            "token_digest = EXCLUDED.token_digest, expires_at = EXCLUDED.expires_at, created_at = EXCLUDED.created_at",
+            nativeQuery = true)
+    int upsertRefreshToken(@Param("digest") String digest,
+                           @Param("userName") String userName,
+                           @Param("expiresAt") LocalDateTime expiresAt,
+                           @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO auth_token (token_digest, user_name, token_type, expires_at, created_at) " +
+            "VALUES (:digest, :userName, 'ACCESS', :expiresAt, :now) " +
+            "ON CONFLICT (token_digest) DO NOTHING", nativeQuery = true)
+    int insertAccessToken(@Param("digest") String digest,
+                          @Param("userName") String userName,
+                          @Param("expiresAt") LocalDateTime expiresAt,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes the tokens of a type of a user except for the newest {@code keep} ones.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM auth_token " +
+            "WHERE user_name = :userName AND token_type = :tokenType AND token_digest NOT IN (" +
+            "SELECT token_digest FROM auth_token " +
+            "WHERE user_name = :userName AND token_type = :tokenType " +
+            "ORDER BY created_at DESC " +
+            "LIMIT :keep)", nativeQuery = true)
+    int trimTokens(@Param("userName") String userName, @Param("tokenType") String tokenType, @Param("keep") int keep);
+
+    /**
+     * Marks the current refresh token of a user as exchanged. The row lock taken by the update makes
+     * concurrent exchanges of the same token succeed at most once.
+     *
+     * @return 1 if the token was the current, unexpired refresh token of the user, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE auth_token SET token_type = 'RETIRED_REFRESH' " +
+            "WHERE token_digest = :digest AND user_name = :userName AND token_type = 'REFRESH' " +
+            "AND expires_at > :now", nativeQuery = true)
+    int retireRefreshToken(@Param("digest") String digest,
+                           @Param("userName") String userName,
+                           @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.userName = :userName")
+    int deleteUserTokens(@Param("userName") String userName);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM auth_token " +
+            "WHERE token_digest = :digest AND user_name = :userName AND token_type = :tokenType " +
+            "AND expires_at > :now)", nativeQuery = true)
+    boolean existsActive(@Param("digest") String digest,
+                         @Param("userName") String userName,
+                         @Param("tokenType") String tokenType,
+                         @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM auth_token " +
+            "WHERE token_digest = :digest AND user_name = :userName AND token_type = :tokenType", nativeQuery = true)
+    int deleteToken(@Param("digest") String digest,
+                    @Param("userName") String userName,
+                    @Param("tokenType") String tokenType);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -13,7 +13,6 @@ public interface FileDataRepository extends JpaRepository<FileData, Long> {
 
     @Modifying
     @Transactional
-    @Query(value = "INSERT INTO file_data (data, file_info_id) VALUES (:data, :fileInfoId)", nativeQuery = true)
-    void saveFileData(@Param("data") byte[] data, @Param("fileInfoId") Long fileInfoId);
+    @Query(value = "DELETE FROM file_data WHERE file_info_id = :fileInfoId", nativeQuery = true)
+    int deleteByFileInfoId(@Param("fileInfoId") Long fileInfoId);
 }
-
@@ -1,11 +1,14 @@
 package com.crm_for_bot.repository;
 
 import com.crm_for_bot.entity.FileInfo;
-import com.crm_for_bot.entity.StatementInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface FileInfoRepository extends JpaRepository<FileInfo, Long> {
@@ -18,4 +21,21 @@ public interface FileInfoRepository extends JpaRepository<FileInfo, Long> {
     Long saveOrUpdateFileInfo(@Param("fileName") String fileName,
                               @Param("fileType") String fileType,
                               @Param("statementId") Long statementId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE file_info SET storage_key = :storageKey WHERE id = :id", nativeQuery = true)
+    int updateStorageKey(@Param("id") Long id, @Param("storageKey") String storageKey);
+
+    /**
+     * Retrieves a batch of ids of files whose contents are still kept in {@code file_data}.
+     *
+     * @param after the id of the last file of the previous batch
+     * @param limit the maximum number of ids to return
+     */
+    @Query(value = "SELECT id FROM file_info " +
+            "WHERE (storage_key IS NULL OR storage_key LIKE 'db:%') AND id > :after " +
+            "ORDER BY id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsStoredInDatabase(@Param("after") Long after, @Param("limit") int limit);
 }
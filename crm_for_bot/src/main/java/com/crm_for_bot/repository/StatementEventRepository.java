@@ -0,0 +1,29 @@
+package com.crm_for_bot.repository;
+
+import com.crm_for_bot.entity.StatementEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StatementEventRepository extends JpaRepository<StatementEvent, Long> {
+
+    List<StatementEvent> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    List<StatementEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM StatementEvent e")
+    Long findLatestEventId();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StatementEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,33 +1,96 @@
 package com.crm_for_bot.repository;
 
+import com.crm_for_bot.dto.StatementCounterDto;
+import com.crm_for_bot.dto.StatementDto;
 import com.crm_for_bot.entity.StatementInfo;
-import com.crm_for_bot.util.StatementStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for performing CRUD operations on {@link StatementInfo} entities.
+ * <p>
+ * The SQL of the statement listings is kept in the constants below. {@link StatementInfo} registers it as
+ * named native queries, because only a named query can carry the result set mapping that builds the DTOs.
  */
 @Repository
 public interface StatementRepository extends JpaRepository<StatementInfo, Long> {
 
+    /**
+     * The projection shared by all statement listings; its column order matches the {@link StatementDto} constructor.
+     */
+    String STATEMENT_DTO_SELECT = "SELECT s.id, s.full_name, s.group_name, s.phone_number, " +
+            "s.type_of_statement, s.faculty, s.year_birthday, si.statement_status " +
+            "FROM statement_info si " +
+            "JOIN statement s ON si.id = s.id ";
+
+    String PENDING_STATEMENTS_SQL = STATEMENT_DTO_SELECT +
+            "WHERE si.statement_status = 'PENDING'";
+
+    String STATEMENTS_BY_FACULTY_SQL = STATEMENT_DTO_SELECT +
+            "WHERE s.faculty = :faculty";
+
+    String STATEMENTS_BY_STATUS_SQL = STATEMENT_DTO_SELECT +
+            "WHERE si.statement_status = :status";
+
+    String STATEMENTS_BY_STATUS_AND_FACULTY_SQL = STATEMENT_DTO_SELECT +
+            "WHERE si.statement_status = :status AND s.faculty = :faculty";
+
+    String PENDING_STATEMENTS_AFTER_SQL = STATEMENT_DTO_SELECT +
+            "WHERE si.statement_status = 'PENDING' AND si.id > :after " +
+            "ORDER BY si.id " +
+            "LIMIT :limit";
+
+    String STATEMENTS_BY_STATUS_AND_FACULTY_AFTER_SQL = STATEMENT_DTO_SELECT +
+            "WHERE si.statement_status = :status AND s.faculty = :faculty AND si.id > :after " +
+            "ORDER BY si.id " +
+            "LIMIT :limit";
+
+    String EXPORT_STATEMENTS_SQL = STATEMENT_DTO_SELECT +
+            "WHERE (:status = '' OR si.statement_status = :status) " +
+            "AND (:faculty = '' OR s.faculty = :faculty) " +
+            "ORDER BY si.id";
+
+    String STATEMENT_COUNTERS_SQL = "SELECT c.statement_status, c.faculty, c.type_of_statement, c.count " +
+            "FROM statement_counter c " +
+            "WHERE c.count > 0 " +
+            "AND (:status = '' OR c.statement_status = :status) " +
+            "AND (:faculty = '' OR c.faculty = :faculty) " +
+            "ORDER BY c.faculty, c.statement_status, c.type_of_statement";
+
+    String SEARCH_STATEMENTS_SQL = STATEMENT_DTO_SELECT +
+            "WHERE normalize_name(s.full_name) LIKE '%' || normalize_name(:pattern) || '%' " +
+            "OR normalize_name(:name) <% normalize_name(s.full_name) " +
+            "OR lower(s.group_name) LIKE lower(:pattern) || '%' " +
+            "OR (:digits <> '' AND regexp_replace(s.phone_number, '\\D', '', 'g') LIKE :digits || '%') " +
+            "ORDER BY normalize_name(s.full_name) LIKE normalize_name(:pattern) || '%' DESC, " +
+            "word_similarity(normalize_name(:name), normalize_name(s.full_name)) DESC, " +
+            "si.id " +
+            "LIMIT :limit OFFSET :offset";
+
+    String SEARCH_STATEMENTS_BY_PREFIX_SQL = STATEMENT_DTO_SELECT +
+            "WHERE normalize_name(s.full_name) LIKE normalize_name(:pattern) || '%' " +
+            "OR lower(s.group_name) LIKE lower(:pattern) || '%' " +
+            "ORDER BY normalize_name(s.full_name), si.id " +
+            "LIMIT :limit OFFSET :offset";
+
     /**
      * Retrieves statement information with a status of false.
      *
      * @return a list of statement information with a status of false
      */
-    @Query(value = "SELECT s.id, s.full_name, s.group_name, s.phone_number, s.type_of_statement, s.faculty, s.year_birthday, si.is_ready " +
-            "FROM statement_info si " +
-            "JOIN statement s ON si.id = s.id " +
-            "WHERE si.statement_status = 'PENDING'",
-            nativeQuery = true)
-    List<Object[]> findStatementsInfoWithStatusPending();
+    @Query(name = "StatementInfo.findStatementsInfoWithStatusPending", nativeQuery = true)
+    List<StatementDto> findStatementsInfoWithStatusPending();
 
     /**
      * Retrieves statement information with a status of false, filtered by faculty.
@@ -35,26 +98,88 @@ public interface StatementRepository extends JpaRepository<StatementInfo, Long>
      * @param faculty the faculty to filter by
      * @return a list of statement information with a status of false and the given faculty
      */
-    @Query(value = "SELECT s.id, s.full_name, s.group_name, s.phone_number, s.type_of_statement, s.faculty, s.year_birthday, si.statement_status " +
-            "FROM statement_info si " +
-            "JOIN statement s ON si.id = s.id " +
-            "WHERE s.faculty = :faculty",
-            nativeQuery = true)
-    List<Object[]> findStatementInfoByFaculty(@Param("faculty") String faculty);
+    @Query(name = "StatementInfo.findStatementInfoByFaculty", nativeQuery = true)
+    List<StatementDto> findStatementInfoByFaculty(@Param("faculty") String faculty);
 
-    @Query(value = "SELECT s.id, s.full_name, s.group_name, s.phone_number, s.type_of_statement, s.faculty, s.year_birthday, si.statement_status " +
-            "FROM statement_info si " +
-            "JOIN statement s ON si.id = s.id " +
-            "WHERE si.statement_status = :status",
-            nativeQuery = true)
-    List<Object[]> findStatementInfoByStatus(@Param("status") String status);
+    @Query(name = "StatementInfo.findStatementInfoByStatus", nativeQuery = true)
+    List<StatementDto> findStatementInfoByStatus(@Param("status") String status);
 
-    @Query(value = "SELECT s.id, s.full_name, s.group_name, s.phone_number, s.type_of_statement, s.faculty, s.year_birthday, si.statement_status " +
-            "FROM statement_info si " +
-            "JOIN statement s ON si.id = s.id " +
-            "WHERE si.statement_status = :status AND s.faculty = :faculty",
-            nativeQuery = true)
-    List<Object[]> findStatementInfoByStatusAndFaculty(@Param("status") String status, @Param("faculty") String faculty);
+    @Query(name = "StatementInfo.findStatementInfoByStatusAndFaculty", nativeQuery = true)
+    List<StatementDto> findStatementInfoByStatusAndFaculty(@Param("status") String status, @Param("faculty") String faculty);
+
+    /**
+     * Retrieves a bounded page of statements with a status of PENDING, ordered by id.
+     *
+     * @param after the id of the last statement of the previous page
+     * @param limit the maximum number of rows to return
+     * @return a list of statement information with ids greater than {@code after}
+     */
+    @Query(name = "StatementInfo.findStatementsInfoWithStatusPendingAfter", nativeQuery = true)
+    List<StatementDto> findStatementsInfoWithStatusPendingAfter(@Param("after") Long after, @Param("limit") int limit);
+
+    /**
+     * Retrieves a bounded page of statements filtered by status and faculty, ordered by id.
+     *
+     * @param status the status to filter by
+     * @param faculty the faculty to filter by
+     * @param after the id of the last statement of the previous page
+     * @param limit the maximum number of rows to return
+     * @return a list of statement information with ids greater than {@code after}
+     */
+    @Query(name = "StatementInfo.findStatementInfoByStatusAndFacultyAfter", nativeQuery = true)
+    List<StatementDto> findStatementInfoByStatusAndFacultyAfter(@Param("status") String status,
+                                                                @Param("faculty") String faculty,
+                                                                @Param("after") Long after,
+                                                                @Param("limit") int limit);
+
+    /**
+     * Streams statements for export, ordered by id, fetching rows from a database cursor in batches.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @param status the status to filter by, or an empty string for any status
+     * @param faculty the faculty to filter by, or an empty string for any faculty
+     * @return a stream of statements matching the filter
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(name = "StatementInfo.streamStatementsForExport", nativeQuery = true)
+    Stream<StatementDto> streamStatementsForExport(@Param("status") String status, @Param("faculty") String faculty);
+
+    /**
+     * Sets the status of all given statements in a single statement.
+     * Not a {@code @Modifying} query: the {@code RETURNING} clause makes it return rows like a select.
+     *
+     * @param status the status to set
+     * @param ids the IDs of the statements to update
+     * @return the IDs of the statements that exist and were updated
+     */
+    @Transactional
+    @Query(value = "UPDATE statement_info SET statement_status = :status " +
+            "WHERE id = ANY(:ids) " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> updateStatusReturningIds(@Param("status") String status, @Param("ids") Long[] ids);
+
+    /**
+     * Sets the status of the given statements that are currently in one of the expected statuses.
+     * The check and the write happen in one statement, so concurrent changes cannot be lost.
+     *
+     * @param status the status to set
+     * @param ids the IDs of the statements to update
+     * @param expected the statuses a statement must be in to be updated
+     * @return the IDs of the statements that were updated
+     */
+    @Transactional
+    @Query(value = "UPDATE statement_info SET statement_status = :status " +
+            "WHERE id = ANY(:ids) AND statement_status = ANY(:expected) " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> updateStatusWhereCurrentIn(@Param("status") String status,
+                                          @Param("ids") Long[] ids,
+                                          @Param("expected") String[] expected);
+
+    @Query(value = "SELECT statement_status FROM statement_info WHERE id = :id", nativeQuery = true)
+    Optional<String> findStatusById(@Param("id") Long id);
+
+    @Query(value = "SELECT id FROM statement_info WHERE id = ANY(:ids)", nativeQuery = true)
+    List<Long> findExistingIds(@Param("ids") Long[] ids);
 
     @Transactional
     @Modifying
@@ -69,12 +194,38 @@ public interface StatementRepository extends JpaRepository<StatementInfo, Long>
                                 @Param("statementId") Long statementId,
                                 @Param("faculty") String faculty);
 
-    @Query(value = "SELECT s.id, s.full_name, s.group_name, s.phone_number, s.type_of_statement, s.faculty, s.year_birthday, si.statement_status " +
-            "FROM statement_info si " +
-            "JOIN statement s ON si.id = s.id " +
-            "WHERE LOWER(s.full_name) LIKE LOWER(CONCAT('%', :name, '%'))",
-            nativeQuery = true)
-    List<Object[]> findByNameContaining(@Param("name") String name);
+    /**
+     * Reads the statement counters maintained by the triggers on {@code statement_info} and {@code statement}.
+     *
+     * @param status the status to filter by, or an empty string for any status
+     * @param faculty the faculty to filter by, or an empty string for any faculty
+     * @return the non-zero counters
+     */
+    @Query(name = "StatementInfo.findStatementCounters", nativeQuery = true)
+    List<StatementCounterDto> findStatementCounters(@Param("status") String status, @Param("faculty") String faculty);
+
+    /**
+     * Searches statements by a fuzzy match on the full name and by prefix on the group name and phone digits,
+     * best matches first. Backed by the trigram and prefix indexes on {@code statement}.
+     *
+     * @param name the search text
+     * @param pattern the search text with LIKE wildcards escaped
+     * @param digits the phone digits to match by prefix, or an empty string to skip the phone match
+     */
+    @Query(name = "StatementInfo.searchStatements", nativeQuery = true)
+    List<StatementDto> searchStatements(@Param("name") String name,
+                                        @Param("pattern") String pattern,
+                                        @Param("digits") String digits,
+                                        @Param("limit") int limit,
+                                        @Param("offset") int offset);
+
+    /**
+     * Searches statements by prefix of the full name or group name; used for search texts too short for trigrams.
+     */
+    @Query(name = "StatementInfo.searchStatementsByPrefix", nativeQuery = true)
+    List<StatementDto> searchStatementsByPrefix(@Param("pattern") String pattern,
+                                                @Param("limit") int limit,
+                                                @Param("offset") int offset);
 
 
 
@@ -1,12 +1,14 @@
 package com.crm_for_bot.repository;
 
 import com.crm_for_bot.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,17 +22,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param userName the username of the user
      * @return an {@link Optional} containing the found {@link User}, or empty if no user is found with the given username
      */
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findUsersByUserName(String userName);
 
+    /**
+     * Finds all {@link User} entities together with their roles in a single query.
+     *
+     * @return all users
+     */
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAll();
+
+    boolean existsByUserName(String userName);
+
     /**
      * Updates the password of a {@link User} entity identified by its username.
      *
      * @param username the username of the user to be updated
      * @param newPassword the new password to set
+     * @return the number of updated users
      */
     @Modifying
     @Transactional
     @Query("UPDATE User u SET u.encryptedPassword = :newPassword WHERE u.userName = :username")
-    void updateUserByUsername(@Param("username") String username,
-                              @Param("newPassword") String newPassword);
+    int updateUserByUsername(@Param("username") String username,
+                             @Param("newPassword") String newPassword);
+
+    /**
+     * Deletes a {@link User} entity identified by its username. The role assignments are removed by the database cascade.
+     *
+     * @param username the username of the user to be deleted
+     * @return the number of deleted users
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM users WHERE user_name = :username", nativeQuery = true)
+    int deleteByUserName(@Param("username") String username);
 }
@@ -5,27 +5,142 @@ import com.crm_for_bot.entity.JwtResponse;
 import com.crm_for_bot.entity.Role;
 import com.crm_for_bot.entity.User;
 import com.crm_for_bot.exception.AuthException;
+import com.crm_for_bot.util.JwtUtils;
+import com.crm_for_bot.util.RefreshTokenRotation;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 /**
  * Service class for handling authentication-related operations such as user login, token management, and token revocation.
+ * <p>
+ * Password verification is deliberately slow, so logins run on a small bounded pool of their own: a burst of logins
+ * waits in, or is rejected by, that pool instead of occupying the request threads serving the rest of the API.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
     private final UserServiceImpl userService;
     private final JwtProvider jwtProvider;
     private final PasswordEncoder passwordEncoder;
-    private final JwtService jwtService;
+    private final TokenStore tokenStore;
+    private final JwtUtils jwtUtils;
+    private final LoginThrottle loginThrottle;
+    private final ThreadPoolExecutor loginExecutor;
+    private final Duration loginTimeout;
+    private final Timer passwordCheckTimer;
+
+    /**
+     * Constructs a new {@code AuthService}.
+     *
+     * @param userService the service used to look up users
+     * @param jwtProvider the provider of JWT tokens
+     * @param passwordEncoder the encoder passwords are verified with
+     * @param tokenStore the store of issued tokens
+     * @param jwtUtils the verifier of access tokens, whose cached principals are dropped on revocation
+     * @param loginThrottle the per-username and per-address limit of login attempts
+     * @param workers the number of threads verifying passwords
+     * @param queueCapacity the number of logins that may wait for a thread before further logins are rejected
+     * @param loginTimeout the time after which a waiting login is given up
+     * @param meterRegistry the registry the login metrics are published to
+     */
+    public AuthService(UserServiceImpl userService,
+                       JwtProvider jwtProvider,
+                       PasswordEncoder passwordEncoder,
+                       TokenStore tokenStore,
+                       JwtUtils jwtUtils,
+                       LoginThrottle loginThrottle,
+                       @Value("${auth.login.workers:2}") int workers,
+                       @Value("${auth.login.queue-capacity:32}") int queueCapacity,
+                       @Value("${auth.login.timeout:10s}") Duration loginTimeout,
+                       MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.jwtProvider = jwtProvider;
+        this.passwordEncoder = passwordEncoder;
+        this.tokenStore = tokenStore;
+        this.jwtUtils = jwtUtils;
+        this.loginThrottle = loginThrottle;
+        this.loginTimeout = loginTimeout;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.loginExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "login-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.passwordCheckTimer = Timer.builder("auth.login.password.check")
+                .description("Time spent verifying login passwords")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.queue", loginExecutor, executor -> executor.getQueue().size())
+                .description("Logins waiting for a password verification thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.active", loginExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Logins being verified")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loginExecutor.shutdownNow();
+    }
+
+    /**
+     * Handles a user login on the login pool, after checking the login attempt limits.
+     * A login that times out is removed from the queue if it has not started yet, and one that has started
+     * skips the password verification, so abandoned logins do not take the pool from the ones still waited for.
+     *
+     * @param authRequest the authentication request containing username and password
+     * @param clientAddress the address the request comes from
+     * @return the future {@link JwtResponse}; completed exceptionally with {@link AuthException} if the credentials
+     *         are wrong, or with {@link java.util.concurrent.TimeoutException} if the login waited too long
+     * @throws AuthException if the username is null
+     * @throws com.crm_for_bot.exception.LoginThrottledException if too many attempts were made for the username or from the address
+     * @throws java.util.concurrent.RejectedExecutionException if the login pool is saturated
+     */
+    public CompletableFuture<JwtResponse> loginAsync(@NonNull JwtRequest authRequest, @NonNull String clientAddress) {
+        if (authRequest.getUsername() == null) {
+            throw new AuthException("Username is null");
+        }
+        loginThrottle.acquire(authRequest.getUsername(), clientAddress);
+        CompletableFuture<JwtResponse> result = new CompletableFuture<>();
+        Future<?> task = loginExecutor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(login(authRequest, result::isDone));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.orTimeout(loginTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> {
+                    if (error instanceof TimeoutException) {
+                        task.cancel(false);
+                        loginExecutor.remove((Runnable) task);
+                    }
+                });
+        return result;
+    }
 
     /**
      * Handles user login by validating credentials and generating JWT tokens.
@@ -35,34 +150,80 @@ public class AuthService {
      * @throws AuthException if the username is null or the user is not found, or the password is incorrect
      */
     public JwtResponse login(@NonNull JwtRequest authRequest) {
+        return login(authRequest, () -> false);
+    }
+
+    /**
+     * Handles user login, giving up before the password verification if the caller no longer waits for the result.
+     *
+     * @param authRequest the authentication request containing username and password
+     * @param abandoned tells whether the caller has stopped waiting
+     * @return a {@link JwtResponse} containing access token, refresh token, and user role
+     * @throws CancellationException if the login was abandoned before the password was verified
+     */
+    private JwtResponse login(JwtRequest authRequest, BooleanSupplier abandoned) {
         if (authRequest.getUsername() == null) {
             throw new AuthException("Username is null");
         }
         final User user = userService.getByLogin(authRequest.getUsername())
                 .orElseThrow(() -> new AuthException("User not found"));
 
-        if (passwordEncoder.matches(authRequest.getPassword(), user.getEncryptedPassword())) {
+        if (abandoned.getAsBoolean()) {
+            throw new CancellationException("Login of user " + authRequest.getUsername() + " was abandoned");
+        }
+        boolean passwordMatches = passwordCheckTimer.record(
+                () -> passwordEncoder.matches(authRequest.getPassword(), user.getEncryptedPassword()));
+        if (passwordMatches) {
             final String accessToken = jwtProvider.generateAccessToken(user);
             final String refreshToken = jwtProvider.generateRefreshToken(user);
-            jwtService.getRefreshStorage().put(user.getUserName(), refreshToken);
+            tokenStore.storeRefreshToken(user.getUserName(), refreshToken,
+                    jwtProvider.getRefreshClaims(refreshToken).getExpiration().toInstant());
+            tokenStore.storeAccessToken(user.getUserName(), accessToken,
+                    jwtProvider.getAccessClaims(accessToken).getExpiration().toInstant());
 
-            List<String> accessTokens = jwtService.getAccessStorage().computeIfAbsent(user.getUserName(), k -> new ArrayList<>());
-            accessTokens.add(accessToken);
-            jwtService.getAccessStorage().put(user.getUserName(), accessTokens);
-
-            String role = user.getRoles().stream()
-                    .map(Role::getName)
-                    .findFirst()
-                    .orElse("USER");
-
-            return new JwtResponse(accessToken, refreshToken, role);
+            return new JwtResponse(accessToken, refreshToken, roleOf(user));
         } else {
             throw new AuthException("Password is incorrect");
         }
     }
 
     /**
-     * Revokes a given access token by removing it from the storage.
+     * Issues a new pair of tokens in exchange for a refresh token, without checking the password again.
+     * The presented refresh token is rotated: it cannot be used a second time, and an attempt to do so
+     * revokes every token of the user, since one of the two parties presenting it must have stolen it.
+     *
+     * @param refreshToken the refresh token issued with the previous pair of tokens
+     * @return a {@link JwtResponse} containing the new access token, the new refresh token and the user role
+     * @throws AuthException if the refresh token is invalid, expired, replaced or reused
+     */
+    public JwtResponse refresh(@NonNull String refreshToken) {
+        if (!jwtProvider.validateRefreshToken(refreshToken)) {
+            throw new AuthException("Refresh token is invalid");
+        }
+        final String login = jwtProvider.getRefreshClaims(refreshToken).getSubject();
+        final User user = userService.getByLogin(login)
+                .orElseThrow(() -> new AuthException("User not found"));
+
+        final String newRefreshToken = jwtProvider.generateRefreshToken(user);
+        RefreshTokenRotation rotation = tokenStore.rotateRefreshToken(login, refreshToken, newRefreshToken,
+                jwtProvider.getRefreshClaims(newRefreshToken).getExpiration().toInstant());
+        if (rotation == RefreshTokenRotation.REUSED) {
+            jwtUtils.evictUser(login);
+            log.warn("Reuse of a refresh token detected for user {}, all tokens of the user were revoked", login);
+            throw new AuthException("Refresh token has already been used");
+        }
+        if (rotation != RefreshTokenRotation.ROTATED) {
+            throw new AuthException("Refresh token is no longer valid");
+        }
+
+        final String accessToken = jwtProvider.generateAccessToken(user);
+        tokenStore.storeAccessToken(login, accessToken,
+                jwtProvider.getAccessClaims(accessToken).getExpiration().toInstant());
+        return new JwtResponse(accessToken, newRefreshToken, roleOf(user));
+    }
+
+    /**
+     * Revokes a given access token by removing it from the token store.
      *
      * @param accessToken the access token to be revoked
      * @return true if the token was successfully revoked, false otherwise
@@ -70,18 +231,17 @@ public class AuthService {
     public boolean revokeToken(@NonNull String accessToken) {
         if (jwtProvider.validateAccessToken(accessToken)) {
             final Claims claims = jwtProvider.getAccessClaims(accessToken);
-            final String login = claims.getSubject();
-            List<String> tokens = jwtService.getAccessStorage().get(login);
-            if (tokens != null) {
-                tokens.remove(accessToken);
-                if (tokens.isEmpty()) {
-                    jwtService.getAccessStorage().remove(login);
-                } else {
-                    jwtService.getAccessStorage().put(login, tokens);
-                }
-                return true;
-            }
+            boolean revoked = tokenStore.revokeAccessToken(claims.getSubject(), accessToken);
+            jwtUtils.evict(accessToken);
+            return revoked;
         }
         return false;
     }
+
+    private static String roleOf(User user) {
+        return user.getRoles().stream()
+                .map(Role::getName)
+                .findFirst()
+                .orElse("USER");
+    }
 }
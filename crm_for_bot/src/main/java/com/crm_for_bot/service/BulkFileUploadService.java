@@ -0,0 +1,21 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.FileUploadResultDto;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Service for attaching many documents to statements from a single ZIP archive.
+ */
+public interface BulkFileUploadService {
+
+    /**
+     * Attaches every file of a ZIP archive to the statement its name starts with,
+     * e.g. {@code 1234.pdf} or {@code scans/1234_passport.pdf} to the statement with ID 1234.
+     *
+     * @param archive the ZIP archive; closed when it has been read
+     * @return the result of every file entry, in archive order
+     */
+    List<FileUploadResultDto> uploadArchive(InputStream archive);
+}
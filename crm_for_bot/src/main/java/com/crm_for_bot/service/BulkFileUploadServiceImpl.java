@@ -0,0 +1,324 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.FileUploadResultDto;
+import com.crm_for_bot.repository.StatementRepository;
+import com.crm_for_bot.util.FileUploadOutcome;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Implementation of the BulkFileUploadService interface.
+ * The archive is read as a stream: every entry is copied to a spool file on its own and the spooled entries are
+ * handed to the upload workers in batches, each batch being saved in one transaction. The number of batches read
+ * ahead of the workers is bounded, so neither memory nor the spool directory grows with the size of the archive.
+ */
+@Service
+@Slf4j
+public class BulkFileUploadServiceImpl implements BulkFileUploadService {
+
+    private static final int MAX_ENTRIES = 1000;
+    private static final String DEFAULT_FILE_TYPE = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+    private final FileService fileService;
+    private final StatementRepository statementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+    private final long maxEntrySize;
+    private final int batchSize;
+    private final int maxPendingBatches;
+
+    /**
+     * Constructs a new {@code BulkFileUploadServiceImpl}.
+     *
+     * @param fileService the service the entries are saved with
+     * @param statementRepository the repository used to check that the statements exist
+     * @param transactionTemplate the template the batch transactions are run with
+     * @param spoolDir the directory the entries are spooled to
+     * @param maxEntrySize the largest entry accepted
+     * @param batchSize the number of entries saved in one transaction
+     * @param workers the number of upload workers
+     */
+    public BulkFileUploadServiceImpl(FileService fileService,
+                                     StatementRepository statementRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${file-upload.spool-dir}") Path spoolDir,
+                                     @Value("${file-upload.max-size}") DataSize maxEntrySize,
+                                     @Value("${file-upload.bulk.batch-size:20}") int batchSize,
+                                     @Value("${file-upload.bulk.workers:4}") int workers) throws IOException {
+        this.fileService = fileService;
+        this.statementRepository = statementRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.spoolDir = Files.createDirectories(spoolDir);
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.batchSize = batchSize;
+        this.maxPendingBatches = workers * 2;
+
+        // When all workers and queue slots are taken by concurrent uploads, the request thread saves the batch
+        // itself, which also stops it from reading further ahead in its archive
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> new Thread(runnable, "file-upload-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.warn("Bulk upload workers did not finish within a minute");
+        }
+    }
+
+    @Override
+    public List<FileUploadResultDto> uploadArchive(InputStream archive) {
+        List<FileUploadResultDto> results = new ArrayList<>();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        Semaphore pending = new Semaphore(maxPendingBatches);
+        Set<Long> seenStatementIds = new HashSet<>();
+        List<SpooledEntry> batch = new ArrayList<>();
+
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = nextEntry(zip, results)) != null) {
+                String fileName = fileNameOf(entry.getName());
+                if (entry.isDirectory() || fileName.isEmpty() || fileName.startsWith(".")
+                        || entry.getName().startsWith("__MACOSX/")) {
+                    continue;
+                }
+                if (results.size() == MAX_ENTRIES) {
+                    results.add(new FileUploadResultDto(entry.getName(), null, FileUploadOutcome.FAILED,
+                            "The archive has more than " + MAX_ENTRIES + " files; the rest was not processed"));
+                    break;
+                }
+
+                FileUploadResultDto result = new FileUploadResultDto(entry.getName(), statementIdOf(fileName), null, null);
+                results.add(result);
+                if (result.getStatementId() == null) {
+                    result.setOutcome(FileUploadOutcome.INVALID_NAME);
+                    result.setMessage("The file name has to start with the statement ID");
+                    continue;
+                }
+                if (!seenStatementIds.add(result.getStatementId())) {
+                    result.setOutcome(FileUploadOutcome.DUPLICATE);
+                    result.setMessage("Another file of the archive is attached to this statement");
+                    continue;
+                }
+
+                SpooledEntry spooled;
+                try {
+                    spooled = spool(zip, result, fileName);
+                } catch (IOException e) {
+                    result.setOutcome(FileUploadOutcome.FAILED);
+                    result.setMessage("The archive could not be read: " + e.getMessage());
+                    break;
+                }
+                if (spooled == null) {
+                    continue;
+                }
+
+                batch.add(spooled);
+                if (batch.size() == batchSize) {
+                    batches.add(submit(batch, pending));
+                    batch = new ArrayList<>();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not close the uploaded archive: {}", e.getMessage());
+        } finally {
+            if (!batch.isEmpty()) {
+                batches.add(submit(batch, pending));
+            }
+            // Every batch completes normally and records its own failures, so this only waits
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+        }
+
+        log.info("Processed bulk upload of {} files, {} saved", results.size(),
+                results.stream().filter(r -> r.getOutcome() == FileUploadOutcome.SAVED).count());
+        return results;
+    }
+
+    /**
+     * Reads the next entry header, recording an unreadable archive as a failed entry.
+     */
+    private ZipEntry nextEntry(ZipInputStream zip, List<FileUploadResultDto> results) {
+        try {
+            return zip.getNextEntry();
+        } catch (IOException | IllegalArgumentException e) {
+            // IllegalArgumentException is thrown for entry names that are not valid UTF-8
+            results.add(new FileUploadResultDto(null, null, FileUploadOutcome.FAILED,
+                    "The archive could not be read: " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Copies the current entry to a spool file.
+     *
+     * @return the spooled entry, or {@code null} if the entry is too large
+     */
+    private SpooledEntry spool(ZipInputStream zip, FileUploadResultDto result, String fileName) throws IOException {
+        Path file = Files.createTempFile(spoolDir, "bulk-", ".tmp");
+        try {
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                while ((read = zip.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxEntrySize) {
+                        Files.delete(file);
+                        result.setOutcome(FileUploadOutcome.TOO_LARGE);
+                        result.setMessage("The file is larger than " + maxEntrySize + " bytes");
+                        return null;
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            String fileType = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(DEFAULT_FILE_TYPE);
+            return new SpooledEntry(result, fileName, fileType, file, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a batch to the workers, blocking while too many batches are waiting to be saved.
+     */
+    private CompletableFuture<Void> submit(List<SpooledEntry> batch, Semaphore pending) {
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(entry -> fail(entry, "The upload was interrupted"));
+            batch.forEach(this::delete);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                saveBatch(batch);
+            } catch (RuntimeException e) {
+                log.error("Bulk upload batch failed", e);
+                batch.stream().filter(entry -> entry.result().getOutcome() == null)
+                        .forEach(entry -> fail(entry, e.getMessage()));
+            } finally {
+                batch.forEach(this::delete);
+                pending.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Saves a batch in a single transaction. If the transaction fails, the entries are retried one by one,
+     * so a single broken file does not fail the files it was batched with.
+     */
+    private void saveBatch(List<SpooledEntry> batch) {
+        Long[] ids = batch.stream().map(entry -> entry.result().getStatementId()).toArray(Long[]::new);
+        Set<Long> existingIds = new HashSet<>(statementRepository.findExistingIds(ids));
+
+        List<SpooledEntry> toSave = new ArrayList<>();
+        for (SpooledEntry entry : batch) {
+            if (existingIds.contains(entry.result().getStatementId())) {
+                toSave.add(entry);
+            } else {
+                entry.result().setOutcome(FileUploadOutcome.NOT_FOUND);
+                entry.result().setMessage("Statement not found with id: " + entry.result().getStatementId());
+            }
+        }
+        if (toSave.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> toSave.forEach(this::save));
+            toSave.forEach(entry -> entry.result().setOutcome(FileUploadOutcome.SAVED));
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Bulk upload batch of {} files failed, saving them one by one: {}", toSave.size(), e.getMessage());
+        }
+
+        for (SpooledEntry entry : toSave) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(entry));
+                entry.result().setOutcome(FileUploadOutcome.SAVED);
+            } catch (RuntimeException e) {
+                log.error("Failed to attach {} to statement {}", entry.fileName(), entry.result().getStatementId(), e);
+                fail(entry, e.getMessage());
+            }
+        }
+    }
+
+    private void save(SpooledEntry entry) {
+        try (InputStream content = Files.newInputStream(entry.file())) {
+            fileService.saveFile(entry.result().getStatementId(), entry.fileName(), entry.fileType(), content, entry.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void fail(SpooledEntry entry, String message) {
+        entry.result().setOutcome(FileUploadOutcome.FAILED);
+        entry.result().setMessage(message);
+    }
+
+    private void delete(SpooledEntry entry) {
+        try {
+            Files.deleteIfExists(entry.file());
+        } catch (IOException e) {
+            log.warn("Could not remove spooled file {}: {}", entry.file(), e.getMessage());
+        }
+    }
+
+    private static String fileNameOf(String entryName) {
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Returns the statement ID a file name starts with, e.g. 1234 for {@code 1234.pdf} or {@code 1234_passport.pdf}.
+     *
+     * @return the statement ID, or {@code null} if the name does not start with one
+     */
+    static Long statementIdOf(String fileName) {
+        int end = 0;
+        while (end < fileName.length() && fileName.charAt(end) >= '0' && fileName.charAt(end) <= '9') {
+            end++;
+        }
+        if (end == 0 || end > 18) {
+            return null;
+        }
+        if (end < fileName.length() && ".-_ ".indexOf(fileName.charAt(end)) < 0) {
+            return null;
+        }
+        return Long.valueOf(fileName.substring(0, end));
+    }
+
+    private record SpooledEntry(FileUploadResultDto result, String fileName, String fileType, Path file, long size) {
+    }
+}
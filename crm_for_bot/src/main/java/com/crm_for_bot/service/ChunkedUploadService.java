@@ -0,0 +1,57 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.UploadSessionDto;
+
+import java.io.InputStream;
+
+/**
+ * Service for resumable uploads of large statement documents.
+ * A file is sent as a sequence of chunks that are spooled to disk, so an interrupted upload continues
+ * from the last received byte instead of starting over.
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * Starts a new upload.
+     *
+     * @param statementId the ID of the statement the file belongs to
+     * @param fileName the original name of the file
+     * @param fileType the content type of the file
+     * @param size the total size of the file in bytes
+     * @return the new upload session
+     */
+    UploadSessionDto init(Long statementId, String fileName, String fileType, long size);
+
+    /**
+     * Appends a chunk to an upload.
+     *
+     * @param uploadId the identifier of the upload
+     * @param offset the position of the chunk in the file; must equal the number of bytes received so far
+     * @param chunk the chunk contents
+     * @return the upload session after the chunk was written
+     */
+    UploadSessionDto writeChunk(String uploadId, long offset, InputStream chunk);
+
+    /**
+     * Returns the current state of an upload.
+     *
+     * @param uploadId the identifier of the upload
+     * @return the upload session
+     */
+    UploadSessionDto getSession(String uploadId);
+
+    /**
+     * Verifies a fully received upload against its checksum and attaches the file to the statement.
+     *
+     * @param uploadId the identifier of the upload
+     * @param sha256 the hex-encoded SHA-256 digest of the whole file
+     */
+    void complete(String uploadId, String sha256);
+
+    /**
+     * Discards an upload and the data received for it.
+     *
+     * @param uploadId the identifier of the upload
+     */
+    void abort(String uploadId);
+}
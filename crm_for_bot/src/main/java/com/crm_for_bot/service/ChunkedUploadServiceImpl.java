@@ -0,0 +1,327 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.UploadSessionDto;
+import com.crm_for_bot.exception.RecourseNotFoundException;
+import com.crm_for_bot.exception.UploadConflictException;
+import com.crm_for_bot.repository.StatementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Implementation of the ChunkedUploadService interface.
+ * Every upload is kept in the spool directory as a {@code .part} file with the received bytes and a
+ * {@code .properties} file with its metadata. The number of bytes received is the size of the part file,
+ * so uploads survive a restart of the application and nothing but a copy buffer is held in memory.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".properties";
+    private static final String DEFAULT_FILE_TYPE = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final Duration ABANDONED_AFTER = Duration.ofHours(24);
+
+    private final FileService fileService;
+    private final StatementRepository statementRepository;
+    private final Path spoolDir;
+    private final long maxSize;
+
+    /**
+     * Constructs a new {@code ChunkedUploadServiceImpl}.
+     *
+     * @param fileService the service the completed files are handed to
+     * @param statementRepository the repository used to check that the statement exists
+     * @param spoolDir the directory the chunks are written to
+     * @param maxSize the largest file accepted
+     */
+    public ChunkedUploadServiceImpl(FileService fileService,
+                                    StatementRepository statementRepository,
+                                    @Value("${file-upload.spool-dir}") Path spoolDir,
+                                    @Value("${file-upload.max-size}") DataSize maxSize) throws IOException {
+        this.fileService = fileService;
+        this.statementRepository = statementRepository;
+        this.spoolDir = Files.createDirectories(spoolDir);
+        this.maxSize = maxSize.toBytes();
+    }
+
+    @Override
+    public UploadSessionDto init(Long statementId, String fileName, String fileType, long size) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("File name must not be empty");
+        }
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxSize + " bytes");
+        }
+        if (!statementRepository.existsById(statementId)) {
+            throw new RecourseNotFoundException("Statement not found with id: " + statementId);
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Properties metadata = new Properties();
+        metadata.setProperty("statementId", statementId.toString());
+        metadata.setProperty("fileName", fileName);
+        metadata.setProperty("fileType", fileType == null || fileType.isBlank() ? detectFileType(fileName) : fileType);
+        metadata.setProperty("size", Long.toString(size));
+
+        try {
+            Files.createFile(partFile(uploadId));
+            // The metadata appears atomically, so a crash never leaves a session that cannot be read
+            Path tmp = Files.createTempFile(spoolDir, uploadId, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                metadata.store(out, null);
+            }
+            Files.move(tmp, metaFile(uploadId), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start upload", e);
+        }
+
+        log.info("Started upload {} of {} bytes for statement {}", uploadId, size, statementId);
+        return new UploadSessionDto(uploadId, statementId, fileName, size, 0);
+    }
+
+    @Override
+    public UploadSessionDto writeChunk(String uploadId, long offset, InputStream chunk) {
+        Properties metadata = readMetadata(uploadId);
+        long size = Long.parseLong(metadata.getProperty("size"));
+
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE);
+             FileLock ignored = lock(channel, uploadId)) {
+            long received = channel.size();
+            if (offset != received) {
+                throw new UploadConflictException("Upload " + uploadId + " continues at offset " + received);
+            }
+
+            channel.position(offset);
+            long written = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            try {
+                while ((read = chunk.read(buffer)) != -1) {
+                    if (offset + written + read > size) {
+                        channel.truncate(offset);
+                        throw new IllegalArgumentException("Chunk exceeds the declared file size of " + size + " bytes");
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    written += read;
+                }
+            } finally {
+                // Whatever arrived before a dropped connection is kept, the client resumes right after it
+                channel.force(false);
+            }
+
+            return toSession(uploadId, metadata, offset + written);
+        } catch (NoSuchFileException e) {
+            throw new RecourseNotFoundException("Upload not found: " + uploadId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write chunk of upload " + uploadId, e);
+        }
+    }
+
+    @Override
+    public UploadSessionDto getSession(String uploadId) {
+        Properties metadata = readMetadata(uploadId);
+        try {
+            return toSession(uploadId, metadata, Files.size(partFile(uploadId)));
+        } catch (NoSuchFileException e) {
+            throw new RecourseNotFoundException("Upload not found: " + uploadId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read upload " + uploadId, e);
+        }
+    }
+
+    @Override
+    public void complete(String uploadId, String sha256) {
+        Properties metadata = readMetadata(uploadId);
+        long size = Long.parseLong(metadata.getProperty("size"));
+
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = lock(channel, uploadId)) {
+            if (channel.size() != size) {
+                throw new UploadConflictException("Upload " + uploadId + " has received " + channel.size()
+                        + " of " + size + " bytes");
+            }
+
+            String actual = digest(channel);
+            if (!actual.equalsIgnoreCase(sha256)) {
+                // The received data is damaged; resuming cannot repair it, so the client has to start over
+                discard(uploadId);
+                throw new IllegalArgumentException("Checksum mismatch for upload " + uploadId + ", expected "
+                        + sha256 + " but received " + actual);
+            }
+
+            String fileName = metadata.getProperty("fileName");
+            String fileType = emptyToNull(metadata.getProperty("fileType"));
+            channel.position(0);
+            fileService.saveFile(Long.valueOf(metadata.getProperty("statementId")),
+                    fileName, fileType == null ? detectFileType(fileName) : fileType,
+                    Channels.newInputStream(channel), size);
+        } catch (NoSuchFileException e) {
+            throw new RecourseNotFoundException("Upload not found: " + uploadId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not complete upload " + uploadId, e);
+        }
+
+        discard(uploadId);
+        log.info("Completed upload {} for statement {}", uploadId, metadata.getProperty("statementId"));
+    }
+
+    @Override
+    public void abort(String uploadId) {
+        readMetadata(uploadId);
+        discard(uploadId);
+        log.info("Aborted upload {}", uploadId);
+    }
+
+    /**
+     * Removes uploads that have not received data for a day, along with metadata whose part file is gone
+     * and temporary files left behind by an interrupted {@link #init}.
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000L)
+    public void removeAbandonedUploads() {
+        Instant threshold = Instant.now().minus(ABANDONED_AFTER);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PART_SUFFIX)) {
+                    if (isOlderThan(file, threshold)) {
+                        String uploadId = name.substring(0, name.length() - PART_SUFFIX.length());
+                        discard(uploadId);
+                        log.info("Removed abandoned upload {}", uploadId);
+                    }
+                } else if (name.endsWith(META_SUFFIX)) {
+                    String uploadId = name.substring(0, name.length() - META_SUFFIX.length());
+                    if (Files.notExists(spoolDir.resolve(uploadId + PART_SUFFIX))) {
+                        Files.deleteIfExists(file);
+                        log.info("Removed metadata of upload {} without data", uploadId);
+                    }
+                } else if (name.endsWith(".tmp") && isOlderThan(file, threshold)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up the upload spool directory: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isOlderThan(Path file, Instant threshold) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(threshold);
+        } catch (NoSuchFileException e) {
+            // Removed by a request while the directory was being listed
+            return false;
+        }
+    }
+
+    private Properties readMetadata(String uploadId) {
+        Properties metadata = new Properties();
+        try (InputStream in = Files.newInputStream(metaFile(uploadId))) {
+            metadata.load(in);
+            return metadata;
+        } catch (NoSuchFileException e) {
+            throw new RecourseNotFoundException("Upload not found: " + uploadId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read upload " + uploadId, e);
+        }
+    }
+
+    private FileLock lock(FileChannel channel, String uploadId) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new UploadConflictException("Upload " + uploadId + " is being written by another request");
+        }
+        return lock;
+    }
+
+    private String digest(FileChannel channel) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        channel.position(0);
+        // The stream is not closed, as that would close the channel used to hand the file over afterwards
+        new DigestInputStream(Channels.newInputStream(channel), digest).transferTo(OutputStream.nullOutputStream());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void discard(String uploadId) {
+        try {
+            Files.deleteIfExists(metaFile(uploadId));
+            Files.deleteIfExists(partFile(uploadId));
+        } catch (IOException e) {
+            log.warn("Could not remove upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    private Path partFile(String uploadId) {
+        return spoolDir.resolve(validId(uploadId) + PART_SUFFIX);
+    }
+
+    private Path metaFile(String uploadId) {
+        return spoolDir.resolve(validId(uploadId) + META_SUFFIX);
+    }
+
+    /**
+     * Only generated identifiers are accepted, so a request cannot address a path outside the spool directory.
+     */
+    private static String validId(String uploadId) {
+        try {
+            return UUID.fromString(uploadId).toString();
+        } catch (IllegalArgumentException e) {
+            throw new RecourseNotFoundException("Upload not found: " + uploadId);
+        }
+    }
+
+    private static UploadSessionDto toSession(String uploadId, Properties metadata, long offset) {
+        return new UploadSessionDto(uploadId, Long.valueOf(metadata.getProperty("statementId")),
+                emptyToNull(metadata.getProperty("fileName")), Long.parseLong(metadata.getProperty("size")), offset);
+    }
+
+    private static String detectFileType(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(DEFAULT_FILE_TYPE);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,115 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.repository.AuthTokenRepository;
+import com.crm_for_bot.util.RefreshTokenRotation;
+import com.crm_for_bot.util.TokenDigests;
+import com.crm_for_bot.util.TokenType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Token store kept in the {@code auth_token} table, so that several CRM instances share the issued tokens.
+ * Selected with {@code token-store.type=jdbc}.
+ */
+@Service
+@ConditionalOnProperty(name = "token-store.type", havingValue = "jdbc")
+@Slf4j
+public class DatabaseTokenStore implements TokenStore {
+
+    private static final int MAX_RETIRED_REFRESH_TOKENS_PER_USER = 20;
+
+    private final AuthTokenRepository authTokenRepository;
+    private final int maxAccessTokensPerUser;
+    private final Counter expirations;
+
+    /**
+     * Constructs a new {@code DatabaseTokenStore}.
+     *
+     * @param authTokenRepository the repository of stored tokens
+     * @param maxAccessTokensPerUser the largest number of access tokens kept per user
+     * @param meterRegistry the registry the store metrics are published to
+     */
+    public DatabaseTokenStore(AuthTokenRepository authTokenRepository,
+                              @Value("${token-store.max-access-tokens-per-user:10}") int maxAccessTokensPerUser,
+                              MeterRegistry meterRegistry) {
+        this.authTokenRepository = authTokenRepository;
+        this.maxAccessTokensPerUser = maxAccessTokensPerUser;
+        this.expirations = Counter.builder("token.store.expired")
+                .description("Expired tokens removed from the token store")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void storeRefreshToken(String username, String refreshToken, Instant expiresAt) {
+        authTokenRepository.upsertRefreshToken(TokenDigests.sha256(refreshToken), username,
+                toLocal(expiresAt), LocalDateTime.now());
+    }
+
+    @Override
+    public boolean isCurrentRefreshToken(String username, String refreshToken) {
+        return authTokenRepository.existsActive(TokenDigests.sha256(refreshToken), username,
+                TokenType.REFRESH.name(), LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional
+    public RefreshTokenRotation rotateRefreshToken(String username, String refreshToken,
+                                                   String newRefreshToken, Instant expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        String digest = TokenDigests.sha256(refreshToken);
+        if (authTokenRepository.retireRefreshToken(digest, username, now) == 1) {
+            authTokenRepository.upsertRefreshToken(TokenDigests.sha256(newRefreshToken), username, toLocal(expiresAt), now);
+            authTokenRepository.trimTokens(username, TokenType.RETIRED_REFRESH.name(), MAX_RETIRED_REFRESH_TOKENS_PER_USER);
+            return RefreshTokenRotation.ROTATED;
+        }
+        if (authTokenRepository.existsActive(digest, username, TokenType.RETIRED_REFRESH.name(), now)) {
+            authTokenRepository.deleteUserTokens(username);
+            return RefreshTokenRotation.REUSED;
+        }
+        return RefreshTokenRotation.UNKNOWN;
+    }
+
+    @Override
+    public void storeAccessToken(String username, String accessToken, Instant expiresAt) {
+        authTokenRepository.insertAccessToken(TokenDigests.sha256(accessToken), username,
+                toLocal(expiresAt), LocalDateTime.now());
+        authTokenRepository.trimTokens(username, TokenType.ACCESS.name(), maxAccessTokensPerUser);
+    }
+
+    @Override
+    public boolean isAccessTokenActive(String username, String accessToken) {
+        return authTokenRepository.existsActive(TokenDigests.sha256(accessToken), username,
+                TokenType.ACCESS.name(), LocalDateTime.now());
+    }
+
+    @Override
+    public boolean revokeAccessToken(String username, String accessToken) {
+        return authTokenRepository.deleteToken(TokenDigests.sha256(accessToken), username, TokenType.ACCESS.name()) > 0;
+    }
+
+    /**
+     * Removes expired tokens every ten minutes.
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000L)
+    public void removeExpiredTokens() {
+        int removed = authTokenRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            expirations.increment(removed);
+            log.info("Removed {} expired tokens", removed);
+        }
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
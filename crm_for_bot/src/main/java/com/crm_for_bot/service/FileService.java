@@ -2,6 +2,19 @@ package com.crm_for_bot.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 public interface FileService {
     void saveFile(MultipartFile file, Long statementId);
+
+    /**
+     * Attaches a file to a statement, replacing the file attached before.
+     *
+     * @param statementId the ID of the statement
+     * @param fileName the original name of the file
+     * @param fileType the content type of the file
+     * @param content the contents of the file; read to the end but not closed
+     * @param size the number of bytes in the stream
+     */
+    void saveFile(Long statementId, String fileName, String fileType, InputStream content, long size);
 }
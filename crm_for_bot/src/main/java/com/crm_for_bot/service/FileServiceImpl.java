@@ -1,14 +1,18 @@
 package com.crm_for_bot.service;
 
-import com.crm_for_bot.entity.StatementInfo;
+import com.crm_for_bot.exception.RecourseNotFoundException;
 import com.crm_for_bot.repository.FileDataRepository;
 import com.crm_for_bot.repository.FileInfoRepository;
 import com.crm_for_bot.repository.StatementRepository;
+import com.ldubgd.utils.storage.DatabaseFileStorage;
+import com.ldubgd.utils.storage.FileStorage;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 @Service
 @AllArgsConstructor
@@ -17,24 +21,42 @@ public class FileServiceImpl implements FileService {
     private final FileDataRepository fileDataRepository;
     private final FileInfoRepository fileInfoRepository;
     private final StatementRepository statementInfoRepository;
+    private final FileStorage fileStorage;
 
     @Override
+    @Transactional
     public void saveFile(MultipartFile file, Long statementId) {
-        StatementInfo statement = statementInfoRepository.findById(statementId)
-                .orElseThrow(() -> new RuntimeException("Statement not found with id: " + statementId));
+        try (InputStream data = file.getInputStream()) {
+            saveFile(statementId, file.getOriginalFilename(), file.getContentType(), data, file.getSize());
+        } catch (IOException e) {
+            throw new RuntimeException("Error while processing file data", e);
+        }
+    }
+
+    /**
+     * Saves the file metadata and streams the contents into the file storage in one transaction,
+     * so memory use does not depend on the file size.
+     */
+    @Override
+    @Transactional
+    public void saveFile(Long statementId, String fileName, String fileType, InputStream content, long size) {
+        if (!statementInfoRepository.existsById(statementId)) {
+            throw new RecourseNotFoundException("Statement not found with id: " + statementId);
+        }
 
-        Long savedFileInfoId = fileInfoRepository.saveOrUpdateFileInfo(
-                file.getOriginalFilename(),
-                file.getContentType(),
-                statementId
-        );
+        Long savedFileInfoId = fileInfoRepository.saveOrUpdateFileInfo(fileName, fileType, statementId);
 
+        String storageKey;
         try {
-            byte[] fileDataBytes = file.getBytes();
-            fileDataRepository.saveFileData(fileDataBytes, savedFileInfoId);
+            storageKey = fileStorage.store(savedFileInfoId, content, size);
         } catch (IOException e) {
             throw new RuntimeException("Error while processing file data", e);
         }
+
+        fileInfoRepository.updateStorageKey(savedFileInfoId, storageKey);
+        if (!storageKey.equals(DatabaseFileStorage.keyOf(savedFileInfoId))) {
+            // A previous upload for the statement may still occupy file_data
+            fileDataRepository.deleteByFileInfoId(savedFileInfoId);
+        }
     }
 }
-
@@ -0,0 +1,73 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.repository.FileDataRepository;
+import com.crm_for_bot.repository.FileInfoRepository;
+import com.ldubgd.utils.storage.DatabaseFileStorage;
+import com.ldubgd.utils.storage.LocalFileStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves documents from the {@code file_data} table to the local file storage on startup.
+ * Enabled with {@code file-storage.migrate=true}. Every document is moved in its own transaction that stores the
+ * contents, points the file info at the new key and deletes the {@code file_data} row, so the migration can be
+ * interrupted and restarted at any time.
+ */
+@Component
+@ConditionalOnProperty(name = "file-storage.migrate", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class FileStorageMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final FileInfoRepository fileInfoRepository;
+    private final FileDataRepository fileDataRepository;
+    private final DatabaseFileStorage databaseFileStorage;
+    private final LocalFileStorage localFileStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Migrating file contents from file_data to the local file storage");
+        long after = 0;
+        int migrated = 0;
+        int failed = 0;
+        List<Long> ids;
+        do {
+            ids = fileInfoRepository.findIdsStoredInDatabase(after, BATCH_SIZE);
+            for (Long id : ids) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> migrate(id));
+                    migrated++;
+                } catch (RuntimeException e) {
+                    log.error("Failed to migrate the contents of file info {}", id, e);
+                    failed++;
+                }
+                after = id;
+            }
+        } while (!ids.isEmpty());
+        log.info("File storage migration finished: {} migrated, {} failed", migrated, failed);
+    }
+
+    private void migrate(Long fileInfoId) {
+        String key;
+        try (InputStream data = databaseFileStorage.open(DatabaseFileStorage.keyOf(fileInfoId))) {
+            key = localFileStorage.store(fileInfoId, data, -1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fileInfoRepository.updateStorageKey(fileInfoId, key);
+        fileDataRepository.deleteByFileInfoId(fileInfoId);
+    }
+}
@@ -0,0 +1,322 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.util.RefreshTokenRotation;
+import com.crm_for_bot.util.TokenDigests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token store kept in the memory of this instance. Selected with {@code token-store.type=memory}, the default.
+ * <p>
+ * Tokens are grouped by user; all changes of a user's tokens run inside {@link ConcurrentHashMap#compute},
+ * so concurrent logins and revocations of one user are serialized while different users never contend.
+ * Expired tokens are found through an index of one-minute expiry buckets, so the sweep only visits users whose
+ * tokens have actually expired. The number of users and of access tokens per user is bounded; when the store is
+ * full, the users whose tokens expire first are evicted.
+ */
+@Service
+@ConditionalOnProperty(name = "token-store.type", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryTokenStore implements TokenStore {
+
+    private static final long BUCKET_MILLIS = 60_000L;
+    private static final int MAX_RETIRED_REFRESH_TOKENS_PER_USER = 20;
+
+    private final Map<String, UserTokens> users = new ConcurrentHashMap<>();
+
+    /**
+     * The users having a token that expires within a bucket, by bucket number.
+     */
+    private final ConcurrentSkipListMap<Long, Set<String>> expiryIndex = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger accessTokenCount = new AtomicInteger();
+    private final int maxUsers;
+    private final int maxAccessTokensPerUser;
+    private final Counter evictions;
+    private final Counter expirations;
+
+    /**
+     * Constructs a new {@code InMemoryTokenStore}.
+     *
+     * @param maxUsers the largest number of users kept
+     * @param maxAccessTokensPerUser the largest number of access tokens kept per user
+     * @param meterRegistry the registry the store metrics are published to
+     */
+    public InMemoryTokenStore(@Value("${token-store.max-users:50000}") int maxUsers,
+                              @Value("${token-store.max-access-tokens-per-user:10}") int maxAccessTokensPerUser,
+                              MeterRegistry meterRegistry) {
+        this.maxUsers = maxUsers;
+        this.maxAccessTokensPerUser = maxAccessTokensPerUser;
+        Gauge.builder("token.store.users", users, Map::size)
+                .description("Users with tokens in the token store")
+                .register(meterRegistry);
+        Gauge.builder("token.store.access.tokens", accessTokenCount, AtomicInteger::get)
+                .description("Access tokens in the token store")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("token.store.evictions")
+                .description("Users evicted because the token store was full")
+                .register(meterRegistry);
+        this.expirations = Counter.builder("token.store.expired")
+                .description("Expired tokens removed from the token store")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void storeRefreshToken(String username, String refreshToken, Instant expiresAt) {
+        String digest = TokenDigests.sha256(refreshToken);
+        update(username, expiresAt, tokens -> {
+            tokens.refreshDigest = digest;
+            tokens.refreshExpiresAt = expiresAt;
+            return 0;
+        });
+    }
+
+    @Override
+    public boolean isCurrentRefreshToken(String username, String refreshToken) {
+        UserTokens tokens = users.get(username);
+        if (tokens == null) {
+            return false;
+        }
+        String digest = TokenDigests.sha256(refreshToken);
+        synchronized (tokens) {
+            return digest.equals(tokens.refreshDigest) && tokens.refreshExpiresAt.isAfter(Instant.now());
+        }
+    }
+
+    @Override
+    public RefreshTokenRotation rotateRefreshToken(String username, String refreshToken,
+                                                   String newRefreshToken, Instant expiresAt) {
+        String digest = TokenDigests.sha256(refreshToken);
+        String newDigest = TokenDigests.sha256(newRefreshToken);
+        Instant now = Instant.now();
+        RefreshTokenRotation[] result = {RefreshTokenRotation.UNKNOWN};
+        users.computeIfPresent(username, (key, tokens) -> {
+            synchronized (tokens) {
+                removeExpired(tokens, now);
+                if (digest.equals(tokens.refreshDigest)) {
+                    tokens.retiredRefreshTokens.put(digest, tokens.refreshExpiresAt);
+                    Iterator<String> oldest = tokens.retiredRefreshTokens.keySet().iterator();
+                    while (tokens.retiredRefreshTokens.size() > MAX_RETIRED_REFRESH_TOKENS_PER_USER) {
+                        oldest.next();
+                        oldest.remove();
+                    }
+                    tokens.refreshDigest = newDigest;
+                    tokens.refreshExpiresAt = expiresAt;
+                    result[0] = RefreshTokenRotation.ROTATED;
+                } else if (tokens.retiredRefreshTokens.containsKey(digest)) {
+                    accessTokenCount.addAndGet(-tokens.accessTokens.size());
+                    result[0] = RefreshTokenRotation.REUSED;
+                    return null;
+                }
+                return tokens.isEmpty() ? null : tokens;
+            }
+        });
+        if (result[0] == RefreshTokenRotation.ROTATED) {
+            index(username, expiresAt);
+        }
+        return result[0];
+    }
+
+    @Override
+    public void storeAccessToken(String username, String accessToken, Instant expiresAt) {
+        String digest = TokenDigests.sha256(accessToken);
+        update(username, expiresAt, tokens -> {
+            int added = tokens.accessTokens.put(digest, expiresAt) == null ? 1 : 0;
+            int dropped = 0;
+            Iterator<String> oldest = tokens.accessTokens.keySet().iterator();
+            while (tokens.accessTokens.size() > maxAccessTokensPerUser) {
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+            return added - dropped;
+        });
+    }
+
+    @Override
+    public boolean isAccessTokenActive(String username, String accessToken) {
+        UserTokens tokens = users.get(username);
+        if (tokens == null) {
+            return false;
+        }
+        String digest = TokenDigests.sha256(accessToken);
+        synchronized (tokens) {
+            Instant expiresAt = tokens.accessTokens.get(digest);
+            return expiresAt != null && expiresAt.isAfter(Instant.now());
+        }
+    }
+
+    @Override
+    public boolean revokeAccessToken(String username, String accessToken) {
+        String digest = TokenDigests.sha256(accessToken);
+        boolean[] removed = new boolean[1];
+        users.computeIfPresent(username, (key, tokens) -> {
+            synchronized (tokens) {
+                removed[0] = tokens.accessTokens.remove(digest) != null;
+                if (removed[0]) {
+                    accessTokenCount.decrementAndGet();
+                }
+                return tokens.isEmpty() ? null : tokens;
+            }
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes the tokens whose expiry bucket has passed.
+     */
+    @Scheduled(fixedDelay = BUCKET_MILLIS)
+    public void removeExpiredTokens() {
+        Instant now = Instant.now();
+        long currentBucket = bucketOf(now);
+        Map.Entry<Long, Set<String>> bucket;
+        while ((bucket = expiryIndex.firstEntry()) != null && bucket.getKey() < currentBucket) {
+            expiryIndex.remove(bucket.getKey());
+            for (String username : bucket.getValue()) {
+                users.computeIfPresent(username, (key, tokens) -> {
+                    synchronized (tokens) {
+                        removeExpired(tokens, now);
+                        return tokens.isEmpty() ? null : tokens;
+                    }
+                });
+            }
+        }
+    }
+
+    private interface TokenUpdate {
+        /**
+         * Changes the tokens of a user.
+         *
+         * @return the change of the number of access tokens
+         */
+        int apply(UserTokens tokens);
+    }
+
+    private void update(String username, Instant expiresAt, TokenUpdate change) {
+        Instant now = Instant.now();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        if (!users.containsKey(username)) {
+            ensureCapacity(now);
+        }
+        users.compute(username, (key, tokens) -> {
+            UserTokens userTokens = tokens == null ? new UserTokens() : tokens;
+            synchronized (userTokens) {
+                removeExpired(userTokens, now);
+                accessTokenCount.addAndGet(change.apply(userTokens));
+                return userTokens.isEmpty() ? null : userTokens;
+            }
+        });
+        index(username, expiresAt);
+    }
+
+    private void index(String username, Instant expiresAt) {
+        expiryIndex.computeIfAbsent(bucketOf(expiresAt), bucket -> ConcurrentHashMap.newKeySet()).add(username);
+    }
+
+    /**
+     * Makes room for a new user, first by removing expired tokens and then by evicting
+     * the users whose tokens expire first.
+     */
+    private void ensureCapacity(Instant now) {
+        if (users.size() < maxUsers) {
+            return;
+        }
+        removeExpiredTokens();
+        while (users.size() >= maxUsers) {
+            Map.Entry<Long, Set<String>> bucket = expiryIndex.pollFirstEntry();
+            Iterator<String> candidates = bucket != null ? bucket.getValue().iterator() : users.keySet().iterator();
+            if (!candidates.hasNext()) {
+                continue;
+            }
+            String username = candidates.next();
+            UserTokens evicted = users.remove(username);
+            if (evicted != null) {
+                synchronized (evicted) {
+                    accessTokenCount.addAndGet(-evicted.accessTokens.size());
+                }
+                evictions.increment();
+                log.warn("Token store is full ({} users), evicted the tokens of user {}", maxUsers, username);
+            }
+            if (bucket != null && candidates.hasNext()) {
+                // The other users of the bucket stay indexed
+                Set<String> rest = ConcurrentHashMap.newKeySet();
+                candidates.forEachRemaining(rest::add);
+                expiryIndex.merge(bucket.getKey(), rest, (current, added) -> {
+                    current.addAll(added);
+                    return current;
+                });
+            }
+        }
+    }
+
+    private void removeExpired(UserTokens tokens, Instant now) {
+        int removed = 0;
+        if (tokens.refreshExpiresAt != null && !tokens.refreshExpiresAt.isAfter(now)) {
+            tokens.refreshDigest = null;
+            tokens.refreshExpiresAt = null;
+            removed++;
+        }
+        Iterator<Instant> retiredExpiries = tokens.retiredRefreshTokens.values().iterator();
+        while (retiredExpiries.hasNext()) {
+            if (!retiredExpiries.next().isAfter(now)) {
+                retiredExpiries.remove();
+                removed++;
+            }
+        }
+        Iterator<Instant> accessExpiries = tokens.accessTokens.values().iterator();
+        int removedAccess = 0;
+        while (accessExpiries.hasNext()) {
+            if (!accessExpiries.next().isAfter(now)) {
+                accessExpiries.remove();
+                removedAccess++;
+            }
+        }
+        if (removed + removedAccess > 0) {
+            accessTokenCount.addAndGet(-removedAccess);
+            expirations.increment(removed + removedAccess);
+        }
+    }
+
+    private static long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), BUCKET_MILLIS);
+    }
+
+    /**
+     * The tokens of a single user. Guarded by its own monitor.
+     */
+    private static class UserTokens {
+        private String refreshDigest;
+        private Instant refreshExpiresAt;
+
+        /**
+         * Access token expiry by token digest, oldest first.
+         */
+        private final LinkedHashMap<String, Instant> accessTokens = new LinkedHashMap<>();
+
+        /**
+         * Expiry of exchanged refresh tokens by token digest, oldest first. Kept to detect their reuse.
+         */
+        private final LinkedHashMap<String, Instant> retiredRefreshTokens = new LinkedHashMap<>();
+
+        boolean isEmpty() {
+            return refreshDigest == null && accessTokens.isEmpty() && retiredRefreshTokens.isEmpty();
+        }
+    }
+}
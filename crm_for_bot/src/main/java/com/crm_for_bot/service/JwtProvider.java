@@ -17,6 +17,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -53,7 +54,7 @@ public class JwtProvider {
      */
     public String generateAccessToken(@NonNull User user) {
         final LocalDateTime now = LocalDateTime.now();
-        final Instant accessExpirationInstant = now.plusHours(ACCESS_LEAVE_MINUTES).atZone(ZoneId.systemDefault()).toInstant();
+        final Instant accessExpirationInstant = now.plusMinutes(ACCESS_LEAVE_MINUTES).atZone(ZoneId.systemDefault()).toInstant();
         final Date accessExpiration = Date.from(accessExpirationInstant);
 
         List<String> roles = user.getRoles().stream()
@@ -71,6 +72,7 @@ public class JwtProvider {
 
     /**
      * Generates a refresh token for a given user.
+     * Every token carries a random ID, so tokens issued to a user within the same second still differ.
      *
      * @param user the user for whom the refresh token is generated
      * @return the generated refresh token
@@ -80,6 +82,7 @@ public class JwtProvider {
         final Instant refreshExpirationInstant = now.plusDays(REFRESH_LEAVE_DAYS).atZone(ZoneId.systemDefault()).toInstant();
         final Date refreshExpiration = Date.from(refreshExpirationInstant);
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUserName())
                 .setExpiration(refreshExpiration)
                 .signWith(jwtRefreshSecret)
@@ -137,6 +140,15 @@ public class JwtProvider {
         return getClaims(token, jwtAccessSecret);
     }
 
+    /**
+     * Extracts claims from a refresh token.
+     *
+     * @param token the refresh token from which claims are extracted
+     * @return the claims extracted from the token
+     */
+    public Claims getRefreshClaims(@NonNull String token) {
+        return getClaims(token, jwtRefreshSecret);
+    }
 
     private Claims getClaims(@NonNull String token, @NonNull Key secret) {
         return Jwts.parserBuilder()
@@ -22,8 +22,6 @@ import java.util.*;
 public class JwtService {
 
     private final UserServiceImpl userService;
-    private final Map<String, String> refreshStorage = new HashMap<>();
-    private final Map<String, List<String>> accessStorage = new HashMap<>();
     private final JwtProvider jwtProvider;
 
     /**
@@ -0,0 +1,90 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.exception.LoginThrottledException;
+import com.crm_for_bot.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limits the rate of login attempts with a token bucket per username and another per client address,
+ * so that password guessing against one account, or from one address against many, is slowed down before
+ * any password is hashed. Buckets of idle keys are dropped once they would be full again.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final Cache<String, TokenBucket> usernameBuckets;
+    private final Cache<String, TokenBucket> addressBuckets;
+    private final int usernameCapacity;
+    private final int addressCapacity;
+    private final Duration refillPeriod;
+    private final Counter usernameThrottled;
+    private final Counter addressThrottled;
+
+    /**
+     * Constructs a new {@code LoginThrottle}.
+     *
+     * @param usernameCapacity the number of attempts permitted per username within the refill period
+     * @param addressCapacity the number of attempts permitted per client address within the refill period
+     * @param refillPeriod the period over which the permitted attempts are restored
+     * @param meterRegistry the registry the throttling metrics are published to
+     */
+    public LoginThrottle(@Value("${auth.login.throttle.per-username:5}") int usernameCapacity,
+                         @Value("${auth.login.throttle.per-address:20}") int addressCapacity,
+                         @Value("${auth.login.throttle.period:1m}") Duration refillPeriod,
+                         MeterRegistry meterRegistry) {
+        this.usernameCapacity = usernameCapacity;
+        this.addressCapacity = addressCapacity;
+        this.refillPeriod = refillPeriod;
+        this.usernameBuckets = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterAccess(refillPeriod)
+                .build();
+        this.addressBuckets = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterAccess(refillPeriod)
+                .build();
+        this.usernameThrottled = Counter.builder("auth.login.throttled")
+                .tag("key", "username")
+                .description("Login attempts rejected by the per-username limit")
+                .register(meterRegistry);
+        this.addressThrottled = Counter.builder("auth.login.throttled")
+                .tag("key", "address")
+                .description("Login attempts rejected by the per-address limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a login attempt.
+     *
+     * @param username the username of the attempt
+     * @param clientAddress the address the attempt comes from
+     * @throws LoginThrottledException if the username or the address has no attempts left
+     */
+    public void acquire(String username, String clientAddress) {
+        long addressWait = addressBuckets.get(clientAddress, key -> newBucket(addressCapacity)).tryConsume();
+        if (addressWait > 0) {
+            addressThrottled.increment();
+            throw new LoginThrottledException("Too many login attempts from " + clientAddress, Duration.ofNanos(addressWait));
+        }
+        long usernameWait = usernameBuckets.get(username.toLowerCase(Locale.ROOT), key -> newBucket(usernameCapacity))
+                .tryConsume();
+        if (usernameWait > 0) {
+            usernameThrottled.increment();
+            throw new LoginThrottledException("Too many login attempts for user " + username, Duration.ofNanos(usernameWait));
+        }
+    }
+
+    private TokenBucket newBucket(int capacity) {
+        return new TokenBucket(capacity, refillPeriod.toNanos());
+    }
+}
@@ -0,0 +1,52 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.entity.Role;
+import com.crm_for_bot.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory catalogue of the roles, loaded on startup and reloaded whenever a role is saved.
+ * Roles are a handful of rows that practically never change, so they are looked up here instead of in the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<String, Role> rolesByName;
+
+    /**
+     * Loads all roles from the database, replacing the catalogue.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        rolesByName = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        log.info("Loaded {} roles", rolesByName.size());
+    }
+
+    /**
+     * Finds a role by its name. A name that is not in the catalogue causes one reload,
+     * so a role added by another instance is picked up.
+     *
+     * @param name the name of the role
+     * @return an Optional containing the role if found, otherwise empty
+     */
+    public Optional<Role> findByName(String name) {
+        if (rolesByName == null || !rolesByName.containsKey(name)) {
+            refresh();
+        }
+        return Optional.ofNullable(rolesByName.get(name));
+    }
+}
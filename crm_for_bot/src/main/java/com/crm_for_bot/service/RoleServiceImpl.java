@@ -15,14 +15,17 @@ import java.util.Optional;
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
 
     @Override
     public Optional<Role> findByName(String name) {
-        return roleRepository.findByName(name);
+        return roleCatalog.findByName(name);
     }
 
     @Override
     public Role save(Role role) {
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        roleCatalog.refresh();
+        return savedRole;
     }
 }
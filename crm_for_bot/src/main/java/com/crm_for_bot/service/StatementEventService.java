@@ -0,0 +1,29 @@
+package com.crm_for_bot.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface for the feed of statement changes.
+ */
+public interface StatementEventService {
+
+    /**
+     * Subscribes a client to the feed of statement changes.
+     * When the client reconnects with the id of the last event it received, the events it missed are replayed first.
+     * Event ids are opaque cursors into the feed; a malformed one is treated as a new subscription.
+     *
+     * @param lastEventId the id of the last event received by the client, or {@code null} for a new subscription
+     * @return the emitter streaming the events to the client
+     */
+    SseEmitter subscribe(String lastEventId);
+
+    /**
+     * Reads the events recorded since the last broadcast and sends them to all subscribers.
+     */
+    void publishNewEvents();
+
+    /**
+     * Sends a keep-alive comment to all subscribers, dropping the ones that have disconnected.
+     */
+    void sendHeartbeat();
+}
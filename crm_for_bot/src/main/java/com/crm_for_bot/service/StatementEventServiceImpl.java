@@ -0,0 +1,431 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.StatementEventDto;
+import com.crm_for_bot.entity.StatementEvent;
+import com.crm_for_bot.listener.StatementChangesEvent;
+import com.crm_for_bot.repository.StatementEventRepository;
+import com.crm_for_bot.util.StatementStatusLabels;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the StatementEventService interface.
+ * Every subscriber is fed from the same read of the {@code statement_event} table, so the cost of the feed
+ * does not grow with the number of open dashboards.
+ * <p>
+ * Event ids come from a sequence, so an event may become visible after events with higher ids: its transaction took
+ * the id first but committed later. Ids skipped by the feed are therefore remembered as missing and sent as soon as
+ * they appear, until they are given up as rolled back. The SSE id of an event is a cursor holding both the highest
+ * id sent and the ids still missing at that point, so a reconnecting client is replayed the late events as well.
+ * <p>
+ * Events are written to each subscriber by a sender thread from the subscriber's own queue, so a slow client
+ * delays neither the feed nor the subscribers queued behind it. The writes themselves block, though: a client that
+ * stops reading holds a sender thread until the container's write timeout ({@code server.tomcat.connection-timeout})
+ * fails the write, so as many stalled clients as there are sender threads ({@code statement-events.sender-threads})
+ * delay every other subscriber by up to that timeout.
+ * <p>
+ * A reconnecting client is replayed its missed events outside the feed lock: it joins the feed at a snapshot of the
+ * current position, and the events broadcast meanwhile are held back until the replay up to that position is queued.
+ */
+@Service
+@Slf4j
+public class StatementEventServiceImpl implements StatementEventService {
+
+    /**
+     * The name of the event telling a client that its missed events cannot be replayed and it has to reload the list.
+     */
+    static final String RESET_EVENT = "RESET";
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int MAX_REPLAYED_EVENTS = 2000;
+    private static final int EVENT_RETENTION_DAYS = 7;
+
+    /**
+     * How long a skipped id is waited for before its transaction is assumed to have rolled back.
+     */
+    private static final long MISSING_ID_TIMEOUT_MS = 10 * 60 * 1000L;
+
+    /**
+     * The most skipped ids waited for at once; the oldest are given up first. Also bounds the length of a cursor.
+     */
+    private static final int MAX_MISSING_IDS = 100;
+
+    /**
+     * The most events queued for one subscriber; a client that falls further behind is disconnected and catches up
+     * through the replay when it reconnects.
+     */
+    private static final int MAX_QUEUED_EVENTS = 1000;
+
+    private static final char CURSOR_SEPARATOR = ':';
+    private static final String CURSOR_ID_SEPARATOR = ",";
+
+    private final StatementEventRepository statementEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor senders;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Guards the feed position, so a subscriber never misses or receives twice an event published while it joins.
+     */
+    private final Object lock = new Object();
+
+    private Long lastBroadcastId;
+
+    /**
+     * The ids below {@link #lastBroadcastId} not seen yet, with the time they are given up at.
+     */
+    private final NavigableMap<Long, Long> missingIds = new TreeMap<>();
+
+    /**
+     * Constructs a new {@code StatementEventServiceImpl}.
+     *
+     * @param statementEventRepository the repository the events are read from
+     * @param eventPublisher the publisher of the {@link StatementChangesEvent}s
+     * @param senderThreads the number of threads writing events to the subscribers
+     */
+    public StatementEventServiceImpl(StatementEventRepository statementEventRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${statement-events.sender-threads:4}") int senderThreads) {
+        this.statementEventRepository = statementEventRepository;
+        this.eventPublisher = eventPublisher;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "statement-event-sender-" + threadNumber.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        Cursor cursor = lastEventId == null ? null : Cursor.parse(lastEventId);
+        Cursor joinedAt;
+        synchronized (lock) {
+            currentWatermark();
+            joinedAt = currentCursor();
+            if (cursor != null) {
+                subscriber.hold();
+            }
+            subscribers.add(subscriber);
+        }
+        if (cursor != null) {
+            try {
+                subscriber.release(replay(cursor, joinedAt));
+            } catch (RuntimeException e) {
+                subscribers.remove(subscriber);
+                throw e;
+            }
+        }
+        log.info("Client subscribed to statement events after: {}, subscribers: {}", lastEventId, subscribers.size());
+        return emitter;
+    }
+
+    @Override
+    public void publishNewEvents() {
+        List<SseEventBuilder> messages = new ArrayList<>();
+        List<StatementEvent> published = new ArrayList<>();
+        List<Subscriber> recipients;
+        synchronized (lock) {
+            long watermark = currentWatermark();
+            long now = System.currentTimeMillis();
+            missingIds.values().removeIf(givenUpAt -> givenUpAt <= now);
+
+            if (!missingIds.isEmpty()) {
+                for (StatementEvent event : statementEventRepository.findByIdInOrderByIdAsc(missingIds.keySet())) {
+                    missingIds.remove(event.getId());
+                    log.debug("Statement event {} became visible after later events", event.getId());
+                    published.add(event);
+                    messages.add(eventMessage(event, currentCursor()));
+                }
+            }
+
+            List<StatementEvent> events;
+            do {
+                events = statementEventRepository.findTop500ByIdGreaterThanOrderByIdAsc(watermark);
+                for (StatementEvent event : events) {
+                    for (long skipped = Math.max(watermark + 1, event.getId() - MAX_MISSING_IDS); skipped < event.getId(); skipped++) {
+                        missingIds.put(skipped, now + MISSING_ID_TIMEOUT_MS);
+                    }
+                    while (missingIds.size() > MAX_MISSING_IDS) {
+                        missingIds.pollFirstEntry();
+                    }
+                    watermark = event.getId();
+                    lastBroadcastId = watermark;
+                    published.add(event);
+                    messages.add(eventMessage(event, currentCursor()));
+                }
+            } while (!events.isEmpty());
+
+            // Subscribers joining from now on are replayed up to the new position instead
+            recipients = List.copyOf(subscribers);
+        }
+
+        if (!published.isEmpty()) {
+            eventPublisher.publishEvent(new StatementChangesEvent(published));
+        }
+        for (Subscriber subscriber : recipients) {
+            messages.forEach(subscriber::enqueue);
+        }
+    }
+
+    @Override
+    public void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    /**
+     * Removes events older than the retention period; clients that were away longer receive a reset instead.
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void pruneEvents() {
+        int deleted = statementEventRepository.deleteCreatedBefore(LocalDateTime.now().minusDays(EVENT_RETENTION_DAYS));
+        log.info("Pruned {} statement events", deleted);
+    }
+
+    /**
+     * Returns the id of the last broadcast event, starting from the newest recorded event after a restart.
+     */
+    private long currentWatermark() {
+        if (lastBroadcastId == null) {
+            lastBroadcastId = statementEventRepository.findLatestEventId();
+        }
+        return lastBroadcastId;
+    }
+
+    private Cursor currentCursor() {
+        return new Cursor(lastBroadcastId, new TreeSet<>(missingIds.keySet()));
+    }
+
+    /**
+     * Returns the messages with the events the client has not received up to the position it joined the feed at:
+     * the events after its watermark and the ones it was missing that have appeared since. Too many missed events
+     * are replaced by a reset event. Reads only the database, so it runs without the feed lock.
+     */
+    private List<SseEventBuilder> replay(Cursor cursor, Cursor joinedAt) {
+        long watermark = joinedAt.watermark();
+        if (watermark - cursor.watermark() > MAX_REPLAYED_EVENTS) {
+            return List.of(SseEmitter.event().id(joinedAt.format()).name(RESET_EVENT).data(""));
+        }
+
+        List<StatementEvent> events = new ArrayList<>();
+        List<Long> lateIds = cursor.missing().stream()
+                .filter(id -> id <= watermark && !joinedAt.missing().contains(id))
+                .toList();
+        if (!lateIds.isEmpty()) {
+            events.addAll(statementEventRepository.findByIdInOrderByIdAsc(lateIds));
+        }
+        long position = cursor.watermark();
+        while (position < watermark) {
+            List<StatementEvent> batch = statementEventRepository.findTop500ByIdGreaterThanOrderByIdAsc(position);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (StatementEvent event : batch) {
+                if (event.getId() > watermark) {
+                    break;
+                }
+                events.add(event);
+            }
+            position = batch.get(batch.size() - 1).getId();
+        }
+
+        // Only the last replayed event moves the client to the current position; if the connection drops earlier,
+        // the next replay starts over from the old cursor, repeating events rather than losing them
+        List<SseEventBuilder> messages = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Cursor eventCursor = i == events.size() - 1 ? joinedAt : cursor;
+            messages.add(eventMessage(events.get(i), eventCursor));
+        }
+        return messages;
+    }
+
+    private SseEventBuilder eventMessage(StatementEvent event, Cursor cursor) {
+        StatementEventDto dto = toDto(event);
+        return SseEmitter.event()
+                .id(cursor.format())
+                .name(dto.getType().name())
+                .data(dto, MediaType.APPLICATION_JSON);
+    }
+
+    private StatementEventDto toDto(StatementEvent event) {
+        return new StatementEventDto(event.getId(), event.getStatementId(), event.getEventType(),
+                StatementStatusLabels.labelOf(event.getStatementStatus()),
+                event.getPreviousStatus() == null ? null : StatementStatusLabels.labelOf(event.getPreviousStatus()),
+                event.getFaculty(), event.getCreatedAt());
+    }
+
+    /**
+     * A position in the feed: the highest event id sent and the lower ids not sent because they were not visible yet.
+     * Written as the SSE event id, e.g. {@code 1042} or {@code 1042:1039,1040}.
+     */
+    private record Cursor(long watermark, SortedSet<Long> missing) {
+
+        String format() {
+            if (missing.isEmpty()) {
+                return String.valueOf(watermark);
+            }
+            StringBuilder cursor = new StringBuilder().append(watermark).append(CURSOR_SEPARATOR);
+            for (Long id : missing) {
+                if (cursor.charAt(cursor.length() - 1) != CURSOR_SEPARATOR) {
+                    cursor.append(CURSOR_ID_SEPARATOR);
+                }
+                cursor.append(id);
+            }
+            return cursor.toString();
+        }
+
+        /**
+         * Parses a cursor sent back by a client.
+         *
+         * @return the cursor, or {@code null} if it is malformed
+         */
+        static Cursor parse(String value) {
+            try {
+                int separator = value.indexOf(CURSOR_SEPARATOR);
+                if (separator < 0) {
+                    return new Cursor(Long.parseLong(value.trim()), Collections.emptySortedSet());
+                }
+                SortedSet<Long> missing = new TreeSet<>();
+                for (String id : value.substring(separator + 1).split(CURSOR_ID_SEPARATOR)) {
+                    if (missing.size() < MAX_MISSING_IDS) {
+                        missing.add(Long.parseLong(id.trim()));
+                    }
+                }
+                return new Cursor(Long.parseLong(value.substring(0, separator).trim()), missing);
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed statement event cursor: {}", value);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A connected client with the queue of messages not yet written to it.
+     * At most one sender thread drains the queue at a time, so the messages are written in order. While the client is
+     * being replayed, the queue is held: broadcast messages collect in it and are written after the replay.
+     */
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Deque<SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean held;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEventBuilder message) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= MAX_QUEUED_EVENTS) {
+                    log.debug("Disconnecting a statement event subscriber that fell {} events behind", queue.size());
+                    close();
+                    emitter.complete();
+                    return;
+                }
+                queue.add(message);
+                if (draining || held) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        synchronized void hold() {
+            held = true;
+        }
+
+        /**
+         * Puts the replayed messages ahead of the broadcast ones collected meanwhile and starts writing them.
+         */
+        void release(List<SseEventBuilder> replayed) {
+            synchronized (this) {
+                held = false;
+                if (closed) {
+                    return;
+                }
+                for (int i = replayed.size() - 1; i >= 0; i--) {
+                    queue.addFirst(replayed.get(i));
+                }
+                if (draining || queue.isEmpty()) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEventBuilder message;
+                synchronized (this) {
+                    message = closed ? null : queue.poll();
+                    if (message == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    // The container completes the failed request itself
+                    log.debug("Dropping statement event subscriber: {}", e.getMessage());
+                    synchronized (this) {
+                        close();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+        }
+    }
+}
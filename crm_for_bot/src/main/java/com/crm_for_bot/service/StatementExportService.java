@@ -0,0 +1,26 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.util.ExportFormat;
+import com.crm_for_bot.util.StatementStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting statements to spreadsheet files.
+ */
+public interface StatementExportService {
+
+    /**
+     * Streams the statements matching the filters into the given output stream.
+     * Rows are read from a database cursor and written as they arrive, so memory use does not grow with the export size.
+     *
+     * @param status the status to filter by, or {@code null} for any status
+     * @param faculty the faculty to filter by, or {@code null} for any faculty
+     * @param format the format of the export
+     * @param outputStream the stream to write the export to
+     * @throws IOException if the output cannot be written
+     */
+    void exportStatements(StatementStatus status, String faculty, ExportFormat format, OutputStream outputStream)
+            throws IOException;
+}
@@ -0,0 +1,57 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.StatementDto;
+import com.crm_for_bot.repository.StatementRepository;
+import com.crm_for_bot.util.ExportFormat;
+import com.crm_for_bot.util.StatementExportWriter;
+import com.crm_for_bot.util.StatementStatus;
+import com.crm_for_bot.util.StatementStatusLabels;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class StatementExportServiceImpl implements StatementExportService {
+
+    /**
+     * The number of rows written between two flushes, so the client starts receiving data early.
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final StatementRepository statementRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportStatements(StatementStatus status, String faculty, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        String statusFilter = status == null ? "" : status.name();
+        String facultyFilter = faculty == null ? "" : faculty;
+
+        StatementExportWriter writer = format.createWriter(outputStream);
+        writer.writeHeader();
+
+        long rows = 0;
+        try (Stream<StatementDto> statements = statementRepository.streamStatementsForExport(statusFilter, facultyFilter)) {
+            Iterator<StatementDto> iterator = statements.iterator();
+            while (iterator.hasNext()) {
+                StatementDto statement = iterator.next();
+                statement.setStatus(StatementStatusLabels.labelOf(statement.getStatus()));
+                writer.writeRow(statement);
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.finish();
+        log.info("Exported {} statements as {} with status: {} and faculty: {}", rows, format, status, faculty);
+    }
+}
@@ -0,0 +1,63 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.util.StatementStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks a monotonically increasing change version for every statement listing, keyed by status and faculty.
+ * Versions are bumped wherever the listing cache is invalidated and are only meaningful within this process,
+ * so every version carries an id of the process instance.
+ */
+@Component
+public class StatementListingVersions {
+
+    /**
+     * The faculty key of changes whose faculty is unknown; such changes affect the listings of every faculty.
+     */
+    private static final String UNKNOWN_FACULTY = "\u0000unknown";
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<StatusFaculty, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * A {@code null} faculty keys the listing across all faculties, which every change of the status affects.
+     */
+    private record StatusFaculty(StatementStatus status, String faculty) {
+    }
+
+    /**
+     * Records a change of statements with the given statuses and faculty.
+     *
+     * @param statuses the statuses of the changed listings
+     * @param faculty the faculty of the changed statements, or {@code null} if unknown
+     */
+    public void bump(Set<StatementStatus> statuses, String faculty) {
+        long version = sequence.incrementAndGet();
+        for (StatementStatus status : statuses) {
+            versions.put(new StatusFaculty(status, faculty == null ? UNKNOWN_FACULTY : faculty), version);
+            versions.put(new StatusFaculty(status, null), version);
+        }
+    }
+
+    /**
+     * Returns the current version of a listing.
+     *
+     * @param status the status of the listing
+     * @param faculty the faculty of the listing, or {@code null} for the listing across all faculties
+     * @return an opaque version string, changed by every change that may affect the listing
+     */
+    public String versionOf(StatementStatus status, String faculty) {
+        long version = faculty == null
+                ? versions.getOrDefault(new StatusFaculty(status, null), 0L)
+                : Math.max(versions.getOrDefault(new StatusFaculty(status, UNKNOWN_FACULTY), 0L),
+                        versions.getOrDefault(new StatusFaculty(status, faculty), 0L));
+        return instanceId + "-" + version;
+    }
+}
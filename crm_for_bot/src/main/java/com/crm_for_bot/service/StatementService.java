@@ -1,9 +1,14 @@
 package com.crm_for_bot.service;
 
+import com.crm_for_bot.dto.StatementCounterDto;
 import com.crm_for_bot.dto.StatementDto;
+import com.crm_for_bot.dto.StatementPageDto;
+import com.crm_for_bot.dto.StatementSearchPageDto;
+import com.crm_for_bot.dto.StatusUpdateResultDto;
 import com.crm_for_bot.util.StatementStatus;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service interface for managing statements.
@@ -18,16 +23,78 @@ public interface StatementService {
     List<StatementDto> getStatementsInfoWithStatusPending();
 
     /**
-     * Updates the status of a statement to true.
+     * Retrieves a page of statements with a status of PENDING.
+     *
+     * @param after the id of the last statement of the previous page, or {@code null} for the first page
+     * @param limit the requested page size
+     * @return the requested page
+     */
+    StatementPageDto getStatementsInfoWithStatusPending(Long after, Integer limit);
+
+    /**
+     * Moves a statement to the given status.
      *
      * @param statementId the ID of the statement to update
+     * @param status the status to set
+     * @param force whether to allow a transition that the status graph forbids, e.g. a move backwards
+     * @throws com.crm_for_bot.exception.RecourseNotFoundException if the statement does not exist
+     * @throws com.crm_for_bot.exception.StatementStatusConflictException if the current status does not allow the transition
+     */
+    void updateStatementStatus(Long statementId, StatementStatus status, boolean force);
+
+    /**
+     * Sets the status of several statements in one round trip.
+     *
+     * @param statementIds the IDs of the statements to update
+     * @param status the status to set
+     * @param force whether to allow transitions that the status graph forbids
+     * @return the outcome for every distinct requested ID, in request order
      */
-    void updateStatementStatus(Long statementId, StatementStatus status);
+    List<StatusUpdateResultDto> updateStatementsStatus(List<Long> statementIds, StatementStatus status, boolean force);
 
     List<StatementDto> getStatementsInfoByStatusAndFaculty(StatementStatus status, String faculty);
 
+    /**
+     * Returns the current change version of a listing, without querying the database.
+     * The version changes whenever a statement of the status and faculty is created or changed.
+     *
+     * @param status the status of the listing
+     * @param faculty the faculty of the listing, or {@code null} for all faculties
+     * @return the version, or empty if changes cannot currently be tracked
+     */
+    Optional<String> getListingVersion(StatementStatus status, String faculty);
+
+    /**
+     * Retrieves a page of statements filtered by status and faculty.
+     *
+     * @param status the status to filter by
+     * @param faculty the faculty to filter by
+     * @param after the id of the last statement of the previous page, or {@code null} for the first page
+     * @param limit the requested page size
+     * @return the requested page
+     */
+    StatementPageDto getStatementsInfoByStatusAndFaculty(StatementStatus status, String faculty, Long after, Integer limit);
+
+    /**
+     * Retrieves the number of statements per status, faculty and type of statement.
+     *
+     * @param status the status to filter by, or {@code null} for any status
+     * @param faculty the faculty to filter by, or {@code null} for any faculty
+     * @return the non-zero counters
+     */
+    List<StatementCounterDto> getStatementCounters(StatementStatus status, String faculty);
+
     void deleteStatementIfReady(Long statementId, StatementStatus status, String faculty);
 
-    List<StatementDto> searchByName(String name);
+    /**
+     * Searches statements by full name, group name prefix or phone number prefix.
+     * Name matching ignores case and apostrophe variants and tolerates typos.
+     *
+     * @param query the search text
+     * @param page the zero-based page number, or {@code null} for the first page
+     * @param limit the requested page size
+     * @return the requested page of results, best matches first
+     */
+    StatementSearchPageDto searchByName(String query, Integer page, Integer limit);
 
 }
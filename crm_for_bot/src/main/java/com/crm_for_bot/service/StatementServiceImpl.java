@@ -1,110 +1,379 @@
 package com.crm_for_bot.service;
 
+import com.crm_for_bot.dto.StatementCounterDto;
 import com.crm_for_bot.dto.StatementDto;
-import com.crm_for_bot.entity.StatementInfo;
+import com.crm_for_bot.dto.StatementPageDto;
+import com.crm_for_bot.dto.StatementSearchPageDto;
+import com.crm_for_bot.dto.StatusUpdateResultDto;
 import com.crm_for_bot.exception.RecourseNotFoundException;
+import com.crm_for_bot.entity.StatementEvent;
+import com.crm_for_bot.exception.StatementStatusConflictException;
+import com.crm_for_bot.listener.StatementChangesEvent;
+import com.crm_for_bot.listener.StatementEventListener;
 import com.crm_for_bot.repository.StatementRepository;
 import com.crm_for_bot.util.StatementStatus;
-import lombok.AllArgsConstructor;
+import com.crm_for_bot.util.StatementStatusLabels;
+import com.crm_for_bot.util.StatusUpdateOutcome;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the StatementService interface.
+ * <p>
+ * Status and faculty listings are served through a read-through cache. Entries are invalidated by status and faculty
+ * from the statement change feed, which also carries changes made by the bot and by other instances; while the feed is
+ * disconnected the cache is bypassed. The same invalidations bump the listing versions used as ETags.
  */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class StatementServiceImpl implements StatementService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Trigram matching needs at least three characters; shorter search texts are matched by prefix only.
+     */
+    private static final int MIN_TRIGRAM_QUERY_LENGTH = 3;
+    private static final int MIN_PHONE_DIGITS = 3;
+
+    private static final int LISTING_CACHE_SIZE = 1000;
+
+    /**
+     * Bounds the staleness of an entry should an invalidation ever be missed.
+     */
+    private static final Duration LISTING_CACHE_TTL = Duration.ofMinutes(5);
+
     private final StatementRepository statementRepository;
+    private final StatementEventListener statementEventListener;
+    private final StatementListingVersions listingVersions;
+
+    private final Cache<ListingKey, List<StatementDto>> listingCache;
+
+    /**
+     * Incremented before every invalidation, so a listing loaded concurrently with an invalidation is not kept.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructs a new {@code StatementServiceImpl} and registers the listing cache metrics.
+     */
+    public StatementServiceImpl(StatementRepository statementRepository,
+                                StatementEventListener statementEventListener,
+                                StatementListingVersions listingVersions,
+                                MeterRegistry meterRegistry) {
+        this.statementRepository = statementRepository;
+        this.statementEventListener = statementEventListener;
+        this.listingVersions = listingVersions;
+        this.listingCache = Caffeine.newBuilder()
+                .maximumSize(LISTING_CACHE_SIZE)
+                .expireAfterWrite(LISTING_CACHE_TTL)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, listingCache, "statementListings");
+    }
+
+    /**
+     * Identifies a cached listing. A {@code null} faculty stands for the listing across all faculties;
+     * unpaged listings have a {@code null} cursor and a zero limit.
+     */
+    private record ListingKey(StatementStatus status, String faculty, Long after, int limit) {
+    }
 
     @Override
     public List<StatementDto> getStatementsInfoWithStatusPending() {
-        List<Object[]> results = statementRepository.findStatementsInfoWithStatusPending();
+        List<StatementDto> results = cachedListing(new ListingKey(StatementStatus.PENDING, null, null, 0),
+                statementRepository::findStatementsInfoWithStatusPending);
         if (results.isEmpty()) {
             log.warn("No statements found with status PENDING");
             return Collections.emptyList();
         }
-        return results.stream().map(this::mapToStatementDto).collect(Collectors.toList());
+        return results;
     }
 
+    @Override
+    public StatementPageDto getStatementsInfoWithStatusPending(Long after, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        long cursor = resolveCursor(after);
+        List<StatementDto> results = cachedListing(new ListingKey(StatementStatus.PENDING, null, cursor, pageSize),
+                () -> statementRepository.findStatementsInfoWithStatusPendingAfter(cursor, pageSize + 1));
+        return toPage(results, pageSize);
+    }
 
-    private StatementDto mapToStatementDto(Object[] result) {
-        StatementDto dto = new StatementDto();
-        dto.setId((Long) result[0]);
-        dto.setFullName((String) result[1]);
-        dto.setGroupName((String) result[2]);
-        dto.setPhoneNumber((String) result[3]);
-        dto.setTypeOfStatement((String) result[4]);
-        dto.setFaculty((String) result[5]);
-        dto.setYearBirthday((String) result[6]);
+    /**
+     * Returns the localized listing for the key, loading it on a miss.
+     * The returned list is shared with the cache and must not be modified.
+     */
+    private List<StatementDto> cachedListing(ListingKey key, Supplier<List<StatementDto>> loader) {
+        if (!statementEventListener.isConnected()) {
+            return localizeStatuses(loader.get());
+        }
+        List<StatementDto> cached = listingCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
 
-        Object statusObject = result[7];
-        String statusString;
+        long invalidationsBeforeLoad = invalidations.get();
+        List<StatementDto> loaded = List.copyOf(localizeStatuses(loader.get()));
+        listingCache.put(key, loaded);
+        if (invalidations.get() != invalidationsBeforeLoad) {
+            // The rows may predate a change that was invalidated while they were loading
+            listingCache.invalidate(key);
+        }
+        return loaded;
+    }
 
-        if (statusObject instanceof Boolean) {
-            statusString = (Boolean) statusObject ? "READY" : "PENDING";
-        } else {
-            statusString = (String) statusObject;
+    @Override
+    public Optional<String> getListingVersion(StatementStatus status, String faculty) {
+        if (!statementEventListener.isConnected()) {
+            return Optional.empty();
         }
+        return Optional.of(listingVersions.versionOf(status, faculty));
+    }
 
-        StatementStatus status = StatementStatus.valueOf(statusString);
-        switch (status) {
-            case IN_PROGRESS:
-                dto.setStatus("В процесі");
-                break;
-            case READY:
-                dto.setStatus("Готово");
-                break;
-            case PENDING:
-                dto.setStatus("В очікуванні");
-                break;
-            default:
-                dto.setStatus("Невідомий статус");
-                break;
+    /**
+     * Drops the cached listings that may contain statements changed by the feed events.
+     */
+    @EventListener
+    public void onStatementChanges(StatementChangesEvent event) {
+        for (StatementEvent change : event.events()) {
+            Set<StatementStatus> statuses = EnumSet.noneOf(StatementStatus.class);
+            boolean known = addStatus(statuses, change.getStatementStatus());
+            if (change.getPreviousStatus() != null) {
+                known &= addStatus(statuses, change.getPreviousStatus());
+            }
+            invalidateListings(known ? statuses : EnumSet.allOf(StatementStatus.class), change.getFaculty());
         }
+    }
 
-        return dto;
+    private boolean addStatus(Set<StatementStatus> statuses, String status) {
+        try {
+            statuses.add(StatementStatus.valueOf(status));
+            return true;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
     }
 
+    /**
+     * Drops the cached listings of the given statuses that may contain statements of the faculty.
+     *
+     * @param faculty the faculty, or {@code null} to drop the listings of every faculty
+     */
+    private void invalidateListings(Set<StatementStatus> statuses, String faculty) {
+        listingVersions.bump(statuses, faculty);
+        invalidations.incrementAndGet();
+        listingCache.asMap().keySet().removeIf(key -> statuses.contains(key.status())
+                && (faculty == null || key.faculty() == null || key.faculty().equals(faculty)));
+    }
+
+    /**
+     * Builds a page from rows fetched with one extra row, which only signals that another page exists.
+     */
+    private StatementPageDto toPage(List<StatementDto> results, int pageSize) {
+        boolean hasMore = results.size() > pageSize;
+        List<StatementDto> items = hasMore ? results.subList(0, pageSize) : results;
+        Long nextCursor = items.isEmpty() ? null : items.get(items.size() - 1).getId();
+        return new StatementPageDto(items, nextCursor, hasMore);
+    }
 
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private long resolveCursor(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    /**
+     * Replaces the status name selected by the projection with its localized label.
+     */
+    private StatementDto localizeStatus(StatementDto dto) {
+        dto.setStatus(StatementStatusLabels.labelOf(dto.getStatus()));
+        return dto;
+    }
+
+    private List<StatementDto> localizeStatuses(List<StatementDto> results) {
+        results.forEach(this::localizeStatus);
+        return results;
+    }
 
     @Override
-    public void updateStatementStatus(Long statementId, StatementStatus status) {
-        StatementInfo statement = statementRepository.findById(statementId).orElseThrow(
+    public void updateStatementStatus(Long statementId, StatementStatus status, boolean force) {
+        Long[] ids = {statementId};
+        List<Long> updated = applyStatus(status, ids, force);
+        if (!updated.isEmpty()) {
+            invalidateListings(affectedStatuses(status, force), null);
+            return;
+        }
+
+        // Only a failed update pays for a second query, to tell a missing statement from a conflict
+        String current = statementRepository.findStatusById(statementId).orElseThrow(
                 () -> new RecourseNotFoundException("Statement is not found with id: " + statementId)
         );
-        statement.setStatementStatus(StatementStatus.valueOf(status.name()));
+        throw new StatementStatusConflictException(conflictMessage(statementId, current, status));
+    }
+
+    /**
+     * Explains why a conditional update changed nothing: either the current status does not allow the transition,
+     * or it does, and another operator changed the statement between the update and the lookup.
+     */
+    private String conflictMessage(Long statementId, String current, StatementStatus status) {
+        boolean allowed = Arrays.stream(StatementStatus.values())
+                .anyMatch(candidate -> candidate.name().equals(current) && candidate.canTransitionTo(status));
+        if (allowed) {
+            return "Statement " + statementId + " was changed by another operator while being moved to " + status
+                    + ", it is now " + current;
+        }
+        return "Statement " + statementId + " cannot be moved from " + current + " to " + status;
+    }
+
+    @Override
+    @Transactional
+    public List<StatusUpdateResultDto> updateStatementsStatus(List<Long> statementIds, StatementStatus status, boolean force) {
+        Set<Long> requestedIds = new LinkedHashSet<>(statementIds);
+        requestedIds.remove(null);
+        if (requestedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Long[] ids = requestedIds.toArray(new Long[0]);
+        Set<Long> updatedIds = new HashSet<>(applyStatus(status, ids, force));
+        if (!updatedIds.isEmpty()) {
+            invalidateListings(affectedStatuses(status, force), null);
+        }
+        Set<Long> existingIds = updatedIds.size() == ids.length
+                ? updatedIds
+                : new HashSet<>(statementRepository.findExistingIds(ids));
+        log.info("Set status {} on {} of {} statements", status, updatedIds.size(), requestedIds.size());
+
+        return requestedIds.stream()
+                .map(id -> new StatusUpdateResultDto(id, updatedIds.contains(id) ? StatusUpdateOutcome.UPDATED
+                        : existingIds.contains(id) ? StatusUpdateOutcome.CONFLICT : StatusUpdateOutcome.NOT_FOUND))
+                .toList();
+    }
+
+    /**
+     * Returns the statuses whose listings a transition to the given status can change.
+     * Invalidating here makes the change visible to the operator at once; the change feed follows with exact faculties.
+     */
+    private Set<StatementStatus> affectedStatuses(StatementStatus status, boolean force) {
+        if (force) {
+            return EnumSet.allOf(StatementStatus.class);
+        }
+        Set<StatementStatus> statuses = EnumSet.copyOf(status.allowedPreviousStatuses());
+        statuses.add(status);
+        return statuses;
+    }
 
-        statementRepository.save(statement);
+    /**
+     * Sets the status in a single conditional update and returns the IDs that were changed.
+     * Without {@code force} only statements whose current status allows the transition are updated.
+     */
+    private List<Long> applyStatus(StatementStatus status, Long[] ids, boolean force) {
+        if (force) {
+            return statementRepository.updateStatusReturningIds(status.name(), ids);
+        }
+        String[] expected = status.allowedPreviousStatuses().stream()
+                .map(StatementStatus::name)
+                .toArray(String[]::new);
+        return statementRepository.updateStatusWhereCurrentIn(status.name(), ids, expected);
     }
 
     @Override
     public List<StatementDto> getStatementsInfoByStatusAndFaculty(StatementStatus status, String faculty) {
-        List<Object[]> results = statementRepository.findStatementInfoByStatusAndFaculty(status.name(), faculty);
-        return results.stream().map(this::mapToStatementDto).collect(Collectors.toList());
+        return cachedListing(new ListingKey(status, faculty, null, 0),
+                () -> statementRepository.findStatementInfoByStatusAndFaculty(status.name(), faculty));
+    }
+
+    @Override
+    public StatementPageDto getStatementsInfoByStatusAndFaculty(StatementStatus status, String faculty, Long after, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        long cursor = resolveCursor(after);
+        List<StatementDto> results = cachedListing(new ListingKey(status, faculty, cursor, pageSize),
+                () -> statementRepository.findStatementInfoByStatusAndFacultyAfter(status.name(), faculty, cursor, pageSize + 1));
+        return toPage(results, pageSize);
+    }
+
+    @Override
+    public List<StatementCounterDto> getStatementCounters(StatementStatus status, String faculty) {
+        List<StatementCounterDto> counters = statementRepository.findStatementCounters(
+                status == null ? "" : status.name(), faculty == null ? "" : faculty);
+        counters.forEach(counter -> counter.setStatus(StatementStatusLabels.labelOf(counter.getStatus())));
+        return counters;
     }
 
     @Override
     @Transactional
     public void deleteStatementIfReady(Long statementId, StatementStatus status, String faculty) {
-        List<Object[]> results = statementRepository.findStatementInfoByStatusAndFaculty(status.name(), faculty);
+        List<StatementDto> results = statementRepository.findStatementInfoByStatusAndFaculty(status.name(), faculty);
         if (!results.isEmpty()){
             statementRepository.deleteStatementIfReady(status.name(), statementId, faculty);
+            invalidateListings(EnumSet.of(status), faculty);
         } else {
             throw new RecourseNotFoundException("Statements are not found");
         }
     }
 
     @Override
-    public List<StatementDto> searchByName(String name) {
-        return statementRepository.findByNameContaining(name).stream().map(this::mapToStatementDto).collect(Collectors.toList());
+    public StatementSearchPageDto searchByName(String query, Integer page, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        String text = query == null ? "" : query.trim();
+        if (text.isEmpty()) {
+            return new StatementSearchPageDto(Collections.emptyList(), pageNumber, pageSize, false);
+        }
+
+        String pattern = escapeLikePattern(text);
+        int offset = pageNumber * pageSize;
+        List<StatementDto> results = text.length() < MIN_TRIGRAM_QUERY_LENGTH
+                ? statementRepository.searchStatementsByPrefix(pattern, pageSize + 1, offset)
+                : statementRepository.searchStatements(text, pattern, phoneDigits(text), pageSize + 1, offset);
+
+        boolean hasMore = results.size() > pageSize;
+        List<StatementDto> items = localizeStatuses(hasMore ? results.subList(0, pageSize) : results);
+        return new StatementSearchPageDto(items, pageNumber, pageSize, hasMore);
+    }
+
+    private String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Extracts the digits of a search text that looks like a phone number, so "098 765" finds "+380987654321".
+     * Returns an empty string when the text is not a phone number.
+     */
+    private String phoneDigits(String text) {
+        if (!text.matches("[+\\d\\s()-]+")) {
+            return "";
+        }
+        String digits = text.replaceAll("\\D", "");
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return "";
+        }
+        // Local numbers are typed without the country code, which is stored with every number
+        return digits.startsWith("0") ? "38" + digits : digits;
     }
 
 }
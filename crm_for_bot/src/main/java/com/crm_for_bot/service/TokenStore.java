@@ -0,0 +1,69 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.util.RefreshTokenRotation;
+
+import java.time.Instant;
+
+/**
+ * Store of the tokens issued to CRM users. Implementations are thread-safe, keep only token digests
+ * and forget tokens once they expire.
+ */
+public interface TokenStore {
+
+    /**
+     * Stores the refresh token of a user, replacing the previous one.
+     *
+     * @param username the user the token was issued to
+     * @param refreshToken the refresh token
+     * @param expiresAt the moment the token expires
+     */
+    void storeRefreshToken(String username, String refreshToken, Instant expiresAt);
+
+    /**
+     * Tells whether a refresh token is the current, unexpired refresh token of a user.
+     *
+     * @param username the user
+     * @param refreshToken the refresh token
+     * @return {@code true} if the token is current
+     */
+    boolean isCurrentRefreshToken(String username, String refreshToken);
+
+    /**
+     * Replaces the current refresh token of a user with a new one. The replaced token is remembered until it expires,
+     * and presenting it again is treated as theft: every token of the user is revoked.
+     *
+     * @param username the user the tokens were issued to
+     * @param refreshToken the refresh token presented by the client
+     * @param newRefreshToken the refresh token replacing it
+     * @param expiresAt the moment the new token expires
+     * @return the result of the exchange
+     */
+    RefreshTokenRotation rotateRefreshToken(String username, String refreshToken, String newRefreshToken, Instant expiresAt);
+
+    /**
+     * Stores an access token issued to a user. When a user has too many access tokens, the oldest ones are dropped.
+     *
+     * @param username the user the token was issued to
+     * @param accessToken the access token
+     * @param expiresAt the moment the token expires
+     */
+    void storeAccessToken(String username, String accessToken, Instant expiresAt);
+
+    /**
+     * Tells whether an access token was issued to a user, has not been revoked and has not expired.
+     *
+     * @param username the user
+     * @param accessToken the access token
+     * @return {@code true} if the token is active
+     */
+    boolean isAccessTokenActive(String username, String accessToken);
+
+    /**
+     * Revokes an access token of a user.
+     *
+     * @param username the user
+     * @param accessToken the access token
+     * @return {@code true} if the token was stored and has been removed
+     */
+    boolean revokeAccessToken(String username, String accessToken);
+}
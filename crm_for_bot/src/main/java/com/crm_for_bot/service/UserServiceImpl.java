@@ -5,13 +5,16 @@ import com.crm_for_bot.dto.UserDto;
 import com.crm_for_bot.entity.Role;
 import com.crm_for_bot.entity.User;
 import com.crm_for_bot.exception.RecourseNotFoundException;
-import com.crm_for_bot.repository.RoleRepository;
 import com.crm_for_bot.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -20,23 +23,62 @@ import java.util.stream.Collectors;
 
 /**
  * Implementation of the UserService interface.
+ * <p>
+ * Users looked up by login are cached for a short time, so repeated logins and token refreshes do not query the
+ * database. Changes made through this service evict the user at once; changes made by another instance become
+ * visible when the entry expires.
  */
 @Service
-@RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int USER_CACHE_SIZE = 1_000;
+    private static final Duration USER_CACHE_TTL = Duration.ofSeconds(30);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
+    private final Cache<String, User> userCache;
+
+    /**
+     * Constructs a new {@code UserServiceImpl}.
+     *
+     * @param userRepository the repository of users
+     * @param passwordEncoder the encoder new passwords are hashed with
+     * @param roleCatalog the catalogue roles are resolved from
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    public UserServiceImpl(UserRepository userRepository,
+                           PasswordEncoder passwordEncoder,
+                           RoleCatalog roleCatalog,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.roleCatalog = roleCatalog;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(USER_CACHE_SIZE)
+                .expireAfterWrite(USER_CACHE_TTL)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users");
+    }
 
+    /**
+     * Returns the user with its roles. Unknown logins are not cached.
+     */
     @Override
     public Optional<User> getByLogin(@NonNull String login) {
-        return userRepository.findUsersByUserName(login);
+        User cached = userCache.getIfPresent(login);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> user = userRepository.findUsersByUserName(login);
+        user.ifPresent(found -> userCache.put(login, found));
+        return user;
     }
 
     @Override
     public UserDto registerUser(UserDto userDto) {
-        if (userRepository.findUsersByUserName(userDto.getUsername()).isPresent()) {
+        if (userRepository.existsByUserName(userDto.getUsername())) {
             throw new IllegalArgumentException("User already exists");
         }
 
@@ -46,13 +88,14 @@ public class UserServiceImpl implements UserService {
 
         Set<Role> roles = new HashSet<>();
         for (String roleName : userDto.getRoles()) {
-            Role role = roleRepository.findByName(roleName)
+            Role role = roleCatalog.findByName(roleName)
                     .orElseThrow(() -> new RecourseNotFoundException("Role not found"));
             roles.add(role);
         }
         user.setRoles(roles);
 
         User savedUser = userRepository.save(user);
+        userCache.invalidate(savedUser.getUserName());
 
         return new UserDto(savedUser.getUserName(), savedUser.getEncryptedPassword(),
                 savedUser.getRoles().stream().map(Role::getName).collect(Collectors.toSet()));
@@ -65,21 +108,20 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteUserByUsername(String username) {
-        User user = userRepository.findUsersByUserName(username)
-                .orElseThrow(() -> new RecourseNotFoundException("User not found with username: " + username));
-        userRepository.delete(user);
+        int deleted = userRepository.deleteByUserName(username);
+        userCache.invalidate(username);
+        if (deleted == 0) {
+            throw new RecourseNotFoundException("User not found with username: " + username);
+        }
     }
 
     @Override
     public UpdateUserDto updateUserPassword(String username, UpdateUserDto userDto) {
-        Optional<User> optionalUser = userRepository.findUsersByUserName(username);
-        if (optionalUser.isPresent()) {
-            User currentUser = optionalUser.get();
-            currentUser.setEncryptedPassword(passwordEncoder.encode(userDto.getNewPassword()));
-            userRepository.updateUserByUsername(username, passwordEncoder.encode(userDto.getNewPassword()));
-            return userDto;
-        } else {
+        int updated = userRepository.updateUserByUsername(username, passwordEncoder.encode(userDto.getNewPassword()));
+        userCache.invalidate(username);
+        if (updated == 0) {
             throw new RecourseNotFoundException("User not found");
         }
+        return userDto;
     }
 }
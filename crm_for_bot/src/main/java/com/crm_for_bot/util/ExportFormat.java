@@ -0,0 +1,40 @@
+package com.crm_for_bot.util;
+
+import java.io.OutputStream;
+import java.util.function.Function;
+
+/**
+ * Supported formats of the statement export.
+ */
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv", StatementCsvWriter::new),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx", StatementXlsxWriter::new);
+
+    private final String contentType;
+    private final String extension;
+    private final Function<OutputStream, StatementExportWriter> writerFactory;
+
+    ExportFormat(String contentType, String extension, Function<OutputStream, StatementExportWriter> writerFactory) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.writerFactory = writerFactory;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Creates a writer producing this format.
+     *
+     * @param outputStream the stream to write to
+     * @return a new writer
+     */
+    public StatementExportWriter createWriter(OutputStream outputStream) {
+        return writerFactory.apply(outputStream);
+    }
+}
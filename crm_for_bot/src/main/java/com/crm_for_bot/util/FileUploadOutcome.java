@@ -0,0 +1,19 @@
+package com.crm_for_bot.util;
+
+/**
+ * Result of attaching a single archive entry to a statement in a bulk upload.
+ */
+public enum FileUploadOutcome {
+    SAVED,
+    NOT_FOUND,
+    /**
+     * The entry name does not start with a statement ID.
+     */
+    INVALID_NAME,
+    /**
+     * An earlier entry of the archive was already attached to the same statement.
+     */
+    DUPLICATE,
+    TOO_LARGE,
+    FAILED
+}
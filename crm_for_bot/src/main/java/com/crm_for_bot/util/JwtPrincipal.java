@@ -0,0 +1,22 @@
+package com.crm_for_bot.util;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The verified contents of an access token.
+ * Instances are immutable, so the same principal can be shared by every request carrying the token.
+ *
+ * @param username    the subject of the token
+ * @param userId      the ID of the user, or {@code null} if the token does not carry it
+ * @param authorities the {@code ROLE_} authorities built from the roles of the token
+ * @param expiresAt   the moment the token expires
+ */
+public record JwtPrincipal(String username, Long userId, List<GrantedAuthority> authorities, Instant expiresAt) {
+
+    public JwtPrincipal {
+        authorities = List.copyOf(authorities);
+    }
+}
@@ -1,77 +1,171 @@
 package com.crm_for_bot.util;
 
+import com.crm_for_bot.service.TokenStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.util.Date;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 /**
  * Utility class for handling JWT operations.
+ * <p>
+ * A token is verified once into a {@link JwtPrincipal}, which is then cached until the token expires, so further
+ * requests with the same access token skip parsing and signature verification. The cache is keyed by a SHA-256
+ * digest of the token, so raw bearer tokens are not kept in memory.
+ * <p>
+ * With the shared {@code jdbc} token store, only tokens listed as active by the {@link TokenStore} are accepted.
+ * Revocations made through this instance drop the cached principals at once; revocations made by another instance
+ * sharing the store take effect once the cached principal expires, within {@link #MAX_PRINCIPAL_TTL}. The store keeps
+ * at most {@code token-store.max-access-tokens-per-user} access tokens per user, so signing in once more than that
+ * ends the oldest session.
+ * <p>
+ * The {@code memory} store forgets every token on restart, so it is not consulted: checking it would log out every
+ * user on each deploy. A revoked access token then stays valid until it expires.
  */
 @Component
 public class JwtUtils {
 
-    @Value("${jwt.secret.access}")
-    private String accessTokenSecret;
+    private static final int PRINCIPAL_CACHE_SIZE = 10_000;
+    private static final Duration MAX_PRINCIPAL_TTL = Duration.ofMinutes(1);
+
+    private final JwtParser accessTokenParser;
+    private final TokenStore tokenStore;
+    private final boolean enforceActiveTokens;
+    private final Cache<String, JwtPrincipal> principalCache;
 
     /**
-     * Extracts the username from the JWT token.
+     * Constructs a new {@code JwtUtils}.
      *
-     * @param token the JWT token
-     * @return the username from the token
+     * @param accessTokenSecret the Base64-encoded secret access tokens are signed with
+     * @param tokenStore the store of issued tokens
+     * @param enforceActiveTokens whether to reject access tokens the token store does not list as active
+     * @param meterRegistry the registry the cache metrics are published to
      */
-    public String getUsernameFromToken(String token) {
-        return getAllClaimsFromToken(token, accessTokenSecret).getSubject();
+    public JwtUtils(@Value("${jwt.secret.access}") String accessTokenSecret, TokenStore tokenStore,
+                    @Value("#{'${token-store.type:memory}' == 'jdbc'}") boolean enforceActiveTokens,
+                    MeterRegistry meterRegistry) {
+        this.accessTokenParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessTokenSecret)))
+                .build();
+        this.tokenStore = tokenStore;
+        this.enforceActiveTokens = enforceActiveTokens;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(PRINCIPAL_CACHE_SIZE)
+                .expireAfter(new PrincipalExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principalCache, "jwtPrincipals");
     }
 
     /**
-     * Extracts the roles from the JWT token.
+     * Returns the principal of an access token, verifying the token only if it has not been verified before.
      *
      * @param token the JWT token
-     * @return a list of roles from the token
+     * @return the principal of the token
+     * @throws io.jsonwebtoken.ExpiredJwtException if the token has expired
+     * @throws JwtException if the token is malformed, its signature is invalid or, when enforced, it is not active
+     * in the token store
      */
-    public List<String> getRolesFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token, accessTokenSecret);
-        return (List<String>) claims.get("roles");
+    public JwtPrincipal getPrincipal(String token) {
+        String key = TokenDigests.sha256(token);
+        JwtPrincipal principal = principalCache.get(key, k -> verifyActive(token));
+        if (!principal.expiresAt().isAfter(Instant.now())) {
+            // The cache may keep an entry for a moment after its expiry; such a token is verified again and rejected
+            principalCache.invalidate(key);
+            return verify(token);
+        }
+        return principal;
     }
 
     /**
-     * Retrieves all claims from the JWT token.
+     * Forgets the cached principal of a revoked access token.
      *
      * @param token the JWT token
-     * @param secret the secret key used to sign the token
-     * @return the claims from the token
      */
-    private Claims getAllClaimsFromToken(String token, String secret) {
-        return Jwts.parser()
-                .setSigningKey(secret)
-                .parseClaimsJws(token)
-                .getBody();
+    public void evict(String token) {
+        principalCache.invalidate(TokenDigests.sha256(token));
+    }
+
+    /**
+     * Forgets the cached principals of every access token of a user whose tokens have been revoked.
+     *
+     * @param username the user
+     */
+    public void evictUser(String username) {
+        principalCache.asMap().values().removeIf(principal -> principal.username().equals(username));
     }
 
     /**
-     * Validates the JWT token.
+     * Verifies an access token and, when enforced, checks that the token store still lists it.
      *
      * @param token the JWT token
-     * @param username the username to validate against
-     * @return true if the token is valid and matches the username, false otherwise
+     * @return the principal of the token
      */
-    public Boolean validateToken(String token, String username) {
-        final String usernameFromToken = getUsernameFromToken(token);
-        return (usernameFromToken.equals(username) && !isTokenExpired(token));
+    private JwtPrincipal verifyActive(String token) {
+        JwtPrincipal principal = verify(token);
+        if (enforceActiveTokens && !tokenStore.isAccessTokenActive(principal.username(), token)) {
+            throw new JwtException("Token has been revoked");
+        }
+        return principal;
     }
 
     /**
-     * Checks if the JWT token is expired.
+     * Parses and verifies an access token.
      *
      * @param token the JWT token
-     * @return true if the token is expired, false otherwise
+     * @return the principal of the token
+     */
+    private JwtPrincipal verify(String token) {
+        Claims claims = accessTokenParser.parseClaimsJws(token).getBody();
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token has no subject or expiration");
+        }
+
+        List<?> roles = claims.get("roles", List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+        Number userId = claims.get("userId", Number.class);
+
+        return new JwtPrincipal(claims.getSubject(), userId == null ? null : userId.longValue(),
+                authorities, claims.getExpiration().toInstant());
+    }
+
+    /**
+     * Keeps a principal until its token expires, but never longer than {@link #MAX_PRINCIPAL_TTL}.
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getAllClaimsFromToken(token, accessTokenSecret).getExpiration();
-        return expiration.before(new Date());
+    private static class PrincipalExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), principal.expiresAt());
+            Duration ttl = untilExpiry.compareTo(MAX_PRINCIPAL_TTL) < 0 ? untilExpiry : MAX_PRINCIPAL_TTL;
+            return Math.max(0, ttl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
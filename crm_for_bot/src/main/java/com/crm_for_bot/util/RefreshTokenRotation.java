@@ -0,0 +1,19 @@
+package com.crm_for_bot.util;
+
+/**
+ * Result of exchanging a refresh token for a new one.
+ */
+public enum RefreshTokenRotation {
+    /**
+     * The token was the current refresh token of the user and has been replaced.
+     */
+    ROTATED,
+    /**
+     * The token had already been exchanged before; every token of the user has been revoked.
+     */
+    REUSED,
+    /**
+     * The token is not known to the store, e.g. because it was replaced by a later login or has expired.
+     */
+    UNKNOWN
+}
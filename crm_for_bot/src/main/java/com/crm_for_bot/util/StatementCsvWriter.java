@@ -0,0 +1,88 @@
+package com.crm_for_bot.util;
+
+import com.crm_for_bot.dto.StatementDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes statements as RFC 4180 CSV in UTF-8.
+ * A byte order mark is written first so that spreadsheet software detects the Cyrillic text correctly.
+ * Values that a spreadsheet would evaluate as a formula, such as {@code =HYPERLINK(...)} typed into a statement
+ * by a bot user or a {@code +380...} phone number, are prefixed with an apostrophe and quoted, so they are shown as text.
+ */
+public class StatementCsvWriter implements StatementExportWriter {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Writer writer;
+
+    /**
+     * Constructs a new {@code StatementCsvWriter}.
+     *
+     * @param outputStream the stream to write to
+     */
+    public StatementCsvWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        writer.write(BYTE_ORDER_MARK);
+        writeLine(HEADER);
+    }
+
+    @Override
+    public void writeRow(StatementDto statement) throws IOException {
+        writeLine(StatementExportWriter.valuesOf(statement));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeValue(values.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(String value) throws IOException {
+        boolean formula = startsFormula(value);
+        if (formula) {
+            value = "'" + value;
+        }
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean startsFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
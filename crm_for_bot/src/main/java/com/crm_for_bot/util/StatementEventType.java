@@ -0,0 +1,10 @@
+package com.crm_for_bot.util;
+
+/**
+ * Kinds of statement changes recorded by the database triggers on {@code statement_info} and {@code file_info}.
+ */
+public enum StatementEventType {
+    CREATED,
+    STATUS_CHANGED,
+    FILE_ATTACHED
+}
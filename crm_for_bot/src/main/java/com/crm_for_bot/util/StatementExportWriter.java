@@ -0,0 +1,69 @@
+package com.crm_for_bot.util;
+
+import com.crm_for_bot.dto.StatementDto;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes statements to an output stream one row at a time, so an export never holds more than a single row.
+ */
+public interface StatementExportWriter {
+
+    /**
+     * The column titles of an export, in the order the row values are written.
+     */
+    List<String> HEADER = List.of("ID", "ПІБ", "Група", "Номер телефону", "Тип заявки",
+            "Факультет", "Дата народження", "Статус");
+
+    /**
+     * Writes the header row.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void writeHeader() throws IOException;
+
+    /**
+     * Writes a single statement row.
+     *
+     * @param statement the statement to write
+     * @throws IOException if the output cannot be written
+     */
+    void writeRow(StatementDto statement) throws IOException;
+
+    /**
+     * Pushes the rows written so far to the underlying stream.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void flush() throws IOException;
+
+    /**
+     * Completes the document and flushes it. The underlying stream is left open.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void finish() throws IOException;
+
+    /**
+     * Returns the values of a statement in header order.
+     *
+     * @param statement the statement
+     * @return the row values
+     */
+    static List<String> valuesOf(StatementDto statement) {
+        return List.of(
+                String.valueOf(statement.getId()),
+                nullToEmpty(statement.getFullName()),
+                nullToEmpty(statement.getGroupName()),
+                nullToEmpty(statement.getPhoneNumber()),
+                nullToEmpty(statement.getTypeOfStatement()),
+                nullToEmpty(statement.getFaculty()),
+                nullToEmpty(statement.getYearBirthday()),
+                nullToEmpty(statement.getStatus()));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -1,7 +1,37 @@
 package com.crm_for_bot.util;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Processing status of a statement.
+ * Statements move forward only: PENDING → IN_PROGRESS → READY. Setting the current status again is allowed.
+ */
 public enum StatementStatus {
     IN_PROGRESS,
     READY,
-    PENDING
+    PENDING;
+
+    /**
+     * Returns the statuses a statement may be in to be moved to this status without an override.
+     *
+     * @return the allowed current statuses
+     */
+    public Set<StatementStatus> allowedPreviousStatuses() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PENDING);
+            case IN_PROGRESS -> EnumSet.of(PENDING, IN_PROGRESS);
+            case READY -> EnumSet.of(IN_PROGRESS, READY);
+        };
+    }
+
+    /**
+     * Tells whether a statement in this status may be moved to the given status without an override.
+     *
+     * @param target the status to move to
+     * @return {@code true} if the transition is allowed
+     */
+    public boolean canTransitionTo(StatementStatus target) {
+        return target.allowedPreviousStatuses().contains(this);
+    }
 }
@@ -0,0 +1,59 @@
+package com.crm_for_bot.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class that resolves the localized label shown in the CRM for a {@link StatementStatus}.
+ */
+public final class StatementStatusLabels {
+
+    private static final String UNKNOWN_STATUS = "Невідомий статус";
+
+    private static final Map<StatementStatus, String> LABELS;
+
+    /**
+     * Statuses by the name stored in the database, so a row is labelled without {@link StatementStatus#valueOf}
+     * and its exception for unknown names.
+     */
+    private static final Map<String, StatementStatus> STATUSES_BY_NAME = Arrays.stream(StatementStatus.values())
+            .collect(Collectors.toUnmodifiableMap(StatementStatus::name, Function.identity()));
+
+    static {
+        Map<StatementStatus, String> labels = new EnumMap<>(StatementStatus.class);
+        labels.put(StatementStatus.IN_PROGRESS, "В процесі");
+        labels.put(StatementStatus.READY, "Готово");
+        labels.put(StatementStatus.PENDING, "В очікуванні");
+        LABELS = Collections.unmodifiableMap(labels);
+    }
+
+    private StatementStatusLabels() {
+    }
+
+    /**
+     * Resolves the label for a status.
+     *
+     * @param status the status
+     * @return the localized label, or a placeholder if the status is unknown
+     */
+    public static String labelOf(StatementStatus status) {
+        return LABELS.getOrDefault(status, UNKNOWN_STATUS);
+    }
+
+    /**
+     * Resolves the label for a status stored as its name in the database.
+     *
+     * @param statusName the name of the status, e.g. "PENDING"
+     * @return the localized label, or a placeholder if the status is unknown
+     */
+    public static String labelOf(String statusName) {
+        if (statusName == null) {
+            return UNKNOWN_STATUS;
+        }
+        return labelOf(STATUSES_BY_NAME.get(statusName));
+    }
+}
@@ -0,0 +1,13 @@
+package com.crm_for_bot.util;
+
+/**
+ * Result of a status change for a single statement in a bulk update.
+ */
+public enum StatusUpdateOutcome {
+    UPDATED,
+    NOT_FOUND,
+    /**
+     * The statement exists but its current status does not allow the transition.
+     */
+    CONFLICT
+}
@@ -0,0 +1,42 @@
+package com.crm_for_bot.util;
+
+/**
+ * A token bucket rate limiter. The bucket holds up to {@code capacity} tokens and is refilled continuously
+ * at a fixed rate; every permitted action takes one token.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Constructs a new, full {@code TokenBucket}.
+     *
+     * @param capacity the largest number of actions permitted in a burst
+     * @param refillNanos the time it takes to refill the bucket from empty to full
+     */
+    public TokenBucket(int capacity, long refillNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = capacity / (double) refillNanos;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the number of nanoseconds until the next token is available
+     */
+    public synchronized long tryConsume() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,31 @@
+package com.crm_for_bot.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Digests of bearer tokens. Tokens are kept and looked up by their digest only,
+ * so a heap dump or a database backup does not reveal usable tokens.
+ */
+public final class TokenDigests {
+
+    private TokenDigests() {
+    }
+
+    /**
+     * Returns the hex-encoded SHA-256 digest of a token.
+     *
+     * @param token the token
+     * @return the 64-character digest
+     */
+    public static String sha256(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.crm_for_bot.util;
+
+/**
+ * Kinds of tokens kept in the token store.
+ */
+public enum TokenType {
+    ACCESS,
+    REFRESH,
+    /**
+     * A refresh token that has been exchanged for a new one. It is kept until it expires to detect its reuse.
+     */
+    RETIRED_REFRESH
+}
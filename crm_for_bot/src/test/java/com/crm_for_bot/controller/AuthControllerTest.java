@@ -0,0 +1,69 @@
+package com.crm_for_bot.controller;
+
+import com.crm_for_bot.entity.JwtRequest;
+import com.crm_for_bot.entity.JwtResponse;
+import com.crm_for_bot.exception.AuthException;
+import com.crm_for_bot.exception.LoginThrottledException;
+import com.crm_for_bot.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerTest {
+
+    private final AuthService authService = mock(AuthService.class);
+    private final AuthController authController = new AuthController(authService);
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+        when(authService.loginAsync(any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new AuthException("Password is incorrect")));
+
+        assertThat(login().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void throttledLoginIsTooManyRequests() throws Exception {
+        when(authService.loginAsync(any(), anyString()))
+                .thenThrow(new LoginThrottledException("Too many login attempts", Duration.ofSeconds(30)));
+
+        ResponseEntity<JwtResponse> response = login();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("30");
+    }
+
+    @Test
+    void saturatedLoginPoolIsUnavailable() throws Exception {
+        when(authService.loginAsync(any(), anyString())).thenThrow(new RejectedExecutionException());
+
+        assertThat(login().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void unexpectedFailureIsAServerError() throws Exception {
+        when(authService.loginAsync(any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Token store is down")));
+
+        assertThat(login().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private ResponseEntity<JwtResponse> login() throws Exception {
+        JwtRequest request = new JwtRequest();
+        request.setUsername("operator");
+        request.setPassword("wrong");
+        return authController.login(request, new MockHttpServletRequest()).get(5, TimeUnit.SECONDS);
+    }
+}
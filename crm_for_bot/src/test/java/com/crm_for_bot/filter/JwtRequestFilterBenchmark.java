@@ -0,0 +1,133 @@
+package com.crm_for_bot.filter;
+
+import com.crm_for_bot.service.InMemoryTokenStore;
+import com.crm_for_bot.service.TokenStore;
+import com.crm_for_bot.util.JwtPrincipal;
+import com.crm_for_bot.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the cost of authenticating a request with an access token.
+ * <ul>
+ *     <li>{@code legacyParsing} repeats what the filter did before principals were cached: four parses and
+ *     signature checks of the same token, each with a new parser.</li>
+ *     <li>{@code principalCacheMiss} is the first request with a token: one verification, the token store lookup
+ *     and the cache insert.</li>
+ *     <li>{@code principalCacheHit} is every further request with the token.</li>
+ *     <li>{@code filter} runs the whole {@link JwtRequestFilter} for a request carrying a cached token.</li>
+ * </ul>
+ * Run with {@code mvn -Pjmh test -Djmh.args="JwtRequestFilterBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private static final String SECRET =
+            "LejjnLZua6SlR7eZXByD2+9M5P+dYxK3IlfA6XgPksuXijiXMAcpulI03o2Vq+PjYENhgTJGXLNm7YS4f1+IMw==";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtUtils jwtUtils;
+    private JwtRequestFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenStore tokenStore = new InMemoryTokenStore(1000, 10, meterRegistry);
+        jwtUtils = new JwtUtils(SECRET, tokenStore, true, meterRegistry);
+        filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenUtil", jwtUtils);
+
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        token = Jwts.builder()
+                .setSubject("operator")
+                .setExpiration(Date.from(expiresAt))
+                .claim("userId", 1L)
+                .claim("roles", List.of("ADMIN"))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        tokenStore.storeAccessToken("operator", token, expiresAt);
+        jwtUtils.getPrincipal(token);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> legacyParsing() {
+        String username = legacyClaims(token).getSubject();
+        boolean valid = legacyClaims(token).getSubject().equals(username)
+                && !legacyClaims(token).getExpiration().before(new Date());
+        if (!valid) {
+            throw new IllegalStateException("Token is not valid");
+        }
+        @SuppressWarnings("unchecked")
+        List<String> roles = (List<String>) legacyClaims(token).get("roles");
+        return roles.stream()
+                .map(role -> "ROLE_" + role)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public JwtPrincipal principalCacheMiss() {
+        jwtUtils.evict(token);
+        return jwtUtils.getPrincipal(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal principalCacheHit() {
+        return jwtUtils.getPrincipal(token);
+    }
+
+    @Benchmark
+    public Object filter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/statements");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,145 @@
+package com.crm_for_bot.mapper;
+
+import com.crm_for_bot.dto.UserDto;
+import com.crm_for_bot.entity.Role;
+import com.crm_for_bot.entity.User;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.modelmapper.record.RecordModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the MapStruct {@link UserDtoMapper} with the mapper it replaced: the hand-written {@code mapToDto} the
+ * user listing called, and the ModelMapper based {@code convertToEntity} of the facade.
+ * Passwords are "encoded" by a pass-through encoder, so the numbers show the cost of the mapping alone; the setup
+ * checks that both sides produce the same result, so they do the same work.
+ * Run with {@code mvn -Pjmh test -Djmh.args="UserDtoMapperBenchmark -prof gc"} to see allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDtoMapperBenchmark {
+
+    private static final PasswordEncoder PLAIN = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    };
+
+    private UserDtoMapper mapStructMapper;
+    private LegacyUserDtoMapper legacyMapper;
+    private User user;
+    private UserDto dto;
+
+    @Setup
+    public void setUp() {
+        mapStructMapper = new UserDtoMapperImpl();
+        mapStructMapper.passwordEncoder = PLAIN;
+        legacyMapper = new LegacyUserDtoMapper();
+
+        Set<Role> roles = new HashSet<>();
+        roles.add(role(1L, "ADMIN"));
+        roles.add(role(2L, "USER"));
+        user = new User(1L, "operator", "$2a$10$encrypted", roles);
+        // Without roles: callers resolve them, and the facade used to turn each name into an empty Role
+        dto = new UserDto("operator", "secret", Set.of());
+
+        UserDto mapStructDto = mapStructMapper.mapToDto(user);
+        UserDto legacyDto = legacyMapper.mapToDto(user);
+        if (!mapStructDto.equals(legacyDto)) {
+            throw new IllegalStateException("The mappers disagree: " + mapStructDto + " and " + legacyDto);
+        }
+        User mapStructUser = mapStructMapper.convertToEntity(dto);
+        User legacyUser = legacyMapper.convertToEntity(dto);
+        if (!Objects.equals(mapStructUser.getUserId(), legacyUser.getUserId())
+                || !Objects.equals(mapStructUser.getUserName(), legacyUser.getUserName())
+                || !Objects.equals(mapStructUser.getEncryptedPassword(), legacyUser.getEncryptedPassword())
+                || !Objects.equals(mapStructUser.getRoles(), legacyUser.getRoles())) {
+            throw new IllegalStateException("The mappers build different users from " + dto);
+        }
+    }
+
+    private static Role role(Long id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+
+    @Benchmark
+    public UserDto toDtoMapStruct() {
+        return mapStructMapper.mapToDto(user);
+    }
+
+    @Benchmark
+    public UserDto toDtoHandWritten() {
+        return legacyMapper.mapToDto(user);
+    }
+
+    @Benchmark
+    public User toEntityMapStruct() {
+        return mapStructMapper.convertToEntity(dto);
+    }
+
+    @Benchmark
+    public User toEntityModelMapper() {
+        return legacyMapper.convertToEntity(dto);
+    }
+
+    /**
+     * The user mapper as it was before MapStruct: a reflective {@link ModelMapper} with strict matching, with the
+     * password and username copied by hand in the entity hook, and a hand-written entity-to-DTO mapping.
+     */
+    static class LegacyUserDtoMapper {
+
+        private final ModelMapper modelMapper = new ModelMapper();
+
+        LegacyUserDtoMapper() {
+            modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+            modelMapper.registerModule(new RecordModule());
+        }
+
+        User convertToEntity(UserDto dto) {
+            User user = modelMapper.map(dto, User.class);
+            user.setUserName(dto.getUsername());
+            user.setEncryptedPassword(PLAIN.encode(dto.getPassword()));
+            return user;
+        }
+
+        UserDto mapToDto(User user) {
+            UserDto userDto = new UserDto();
+            userDto.setUsername(user.getUserName());
+            userDto.setPassword(user.getEncryptedPassword());
+            Set<String> roles = user.getRoles().stream()
+                    .map(Role::getName)
+                    .collect(Collectors.toSet());
+            userDto.setRoles(roles);
+            return userDto;
+        }
+    }
+}
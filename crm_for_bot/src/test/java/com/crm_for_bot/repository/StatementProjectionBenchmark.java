@@ -0,0 +1,168 @@
+package com.crm_for_bot.repository;
+
+import com.crm_for_bot.dto.StatementDto;
+import com.crm_for_bot.entity.StatementInfo;
+import com.crm_for_bot.util.StatementStatus;
+import com.crm_for_bot.util.StatementStatusLabels;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a statement listing through the {@link StatementInfo#STATEMENT_DTO_MAPPING} constructor result
+ * with the {@code Object[]} rows the repository returned before, which were cast slot by slot and labelled
+ * through {@link StatementStatus#valueOf} and a switch.
+ * Both read the same {@value #ROWS} rows from an in-memory H2 database, so the numbers show the cost of the
+ * mapping and not of PostgreSQL.
+ * Run with {@code mvn -Pjmh test -Djmh.args="StatementProjectionBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementProjectionBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final String FACULTY = "Факультет цивільного захисту";
+    private static final String URL = "jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1";
+    private static final StatementStatus[] STATUSES = StatementStatus.values();
+
+    private Connection keepAlive;
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        keepAlive = DriverManager.getConnection(URL, "sa", "");
+        try (Statement ddl = keepAlive.createStatement()) {
+            ddl.execute("CREATE TABLE statement (id BIGINT PRIMARY KEY, full_name VARCHAR(255), " +
+                    "group_name VARCHAR(255), phone_number VARCHAR(255), type_of_statement VARCHAR(255), " +
+                    "faculty VARCHAR(255), year_birthday VARCHAR(255))");
+            ddl.execute("CREATE TABLE statement_info (id BIGINT PRIMARY KEY, is_ready BOOLEAN, " +
+                    "statement_status VARCHAR(255))");
+        }
+        try (PreparedStatement statement = keepAlive.prepareStatement(
+                "INSERT INTO statement VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement info = keepAlive.prepareStatement("INSERT INTO statement_info VALUES (?, ?, ?)")) {
+            for (long id = 1; id <= ROWS; id++) {
+                statement.setLong(1, id);
+                statement.setString(2, "Student Number " + id);
+                statement.setString(3, "KN-" + id % 40);
+                statement.setString(4, "+38050" + (1_000_000 + id));
+                statement.setString(5, "Довідка з місця навчання");
+                statement.setString(6, FACULTY);
+                statement.setString(7, "2004");
+                statement.addBatch();
+                info.setLong(1, id);
+                info.setBoolean(2, false);
+                info.setString(3, STATUSES[(int) (id % STATUSES.length)].name());
+                info.addBatch();
+            }
+            statement.executeBatch();
+            info.executeBatch();
+        }
+
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(StatementInfo.class)
+                .setProperty(AvailableSettings.URL, URL)
+                .setProperty(AvailableSettings.USER, "sa")
+                .setProperty(AvailableSettings.PASS, "")
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "none")
+                .buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        sessionFactory.close();
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public List<StatementDto> constructorResult() {
+        try (Session session = sessionFactory.openSession()) {
+            List<StatementDto> results = session.createNamedQuery("StatementInfo.findStatementInfoByFaculty",
+                            StatementDto.class)
+                    .setParameter("faculty", FACULTY)
+                    .getResultList();
+            results.forEach(dto -> dto.setStatus(StatementStatusLabels.labelOf(dto.getStatus())));
+            return results;
+        }
+    }
+
+    @Benchmark
+    public List<StatementDto> objectArrayRows() {
+        try (Session session = sessionFactory.openSession()) {
+            List<Object[]> rows = session.createNativeQuery(StatementRepository.STATEMENTS_BY_FACULTY_SQL, Object[].class)
+                    .setParameter("faculty", FACULTY)
+                    .getResultList();
+            List<StatementDto> results = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                results.add(mapToStatementDto(row));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * The row mapping the statement service used before the constructor result.
+     */
+    private static StatementDto mapToStatementDto(Object[] result) {
+        StatementDto dto = new StatementDto();
+        dto.setId((Long) result[0]);
+        dto.setFullName((String) result[1]);
+        dto.setGroupName((String) result[2]);
+        dto.setPhoneNumber((String) result[3]);
+        dto.setTypeOfStatement((String) result[4]);
+        dto.setFaculty((String) result[5]);
+        dto.setYearBirthday((String) result[6]);
+
+        Object statusObject = result[7];
+        String statusString;
+
+        if (statusObject instanceof Boolean) {
+            statusString = (Boolean) statusObject ? "READY" : "PENDING";
+        } else {
+            statusString = (String) statusObject;
+        }
+
+        switch (StatementStatus.valueOf(statusString)) {
+            case IN_PROGRESS:
+                dto.setStatus("В процесі");
+                break;
+            case READY:
+                dto.setStatus("Готово");
+                break;
+            case PENDING:
+                dto.setStatus("В очікуванні");
+                break;
+            default:
+                dto.setStatus("Невідомий статус");
+                break;
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,126 @@
+package com.crm_for_bot.repository;
+
+import com.crm_for_bot.entity.FileData;
+import com.crm_for_bot.entity.FileInfo;
+import com.crm_for_bot.entity.StatementInfo;
+import com.crm_for_bot.util.StatementStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the SQL Hibernate issues for statements, so that file metadata and contents stay out of it.
+ * <p>
+ * H2 has no {@code UPDATE ... RETURNING}; {@link RecordingInspector} runs such updates as the equivalent
+ * {@code SELECT ... FROM FINAL TABLE (UPDATE ...)}, so the status updates execute their own WHERE clauses.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.crm_for_bot.repository.StatementRepositoryTest$RecordingInspector"
+})
+class StatementRepositoryTest {
+
+    @Autowired
+    private StatementRepository statementRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long fileInfoId;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new StatementInfo(1L, false, StatementStatus.PENDING));
+        entityManager.persist(new StatementInfo(2L, false, StatementStatus.READY));
+        FileInfo fileInfo = entityManager.persist(new FileInfo(null, "statement.pdf", "application/pdf", 1L, null));
+        fileInfoId = fileInfo.getId();
+        FileData fileData = new FileData();
+        fileData.setData(new byte[]{1, 2, 3});
+        fileData.setFileInfoId(fileInfo.getId());
+        entityManager.persist(fileData);
+        entityManager.flush();
+        entityManager.clear();
+        RecordingInspector.SQL.clear();
+    }
+
+    @Test
+    void conditionalStatusUpdateTouchesOnlyTheStatementTable() {
+        List<Long> updated = statementRepository.updateStatusWhereCurrentIn(StatementStatus.IN_PROGRESS.name(),
+                new Long[]{1L, 2L}, new String[]{StatementStatus.PENDING.name(), StatementStatus.IN_PROGRESS.name()});
+
+        assertThat(updated).containsExactly(1L);
+        assertThat(RecordingInspector.SQL).hasSize(1);
+        assertThat(RecordingInspector.SQL.get(0)).startsWith("update statement_info").doesNotContain("file_");
+        assertStatus(1L, StatementStatus.IN_PROGRESS);
+        assertStatus(2L, StatementStatus.READY);
+        assertFilesUntouched();
+    }
+
+    @Test
+    void forcedStatusUpdateReturnsOnlyExistingStatements() {
+        List<Long> updated = statementRepository.updateStatusReturningIds(StatementStatus.PENDING.name(),
+                new Long[]{2L, 99L});
+
+        assertThat(updated).containsExactly(2L);
+        assertThat(RecordingInspector.SQL).hasSize(1).noneMatch(sql -> sql.contains("file_"));
+        assertStatus(2L, StatementStatus.PENDING);
+        assertFilesUntouched();
+    }
+
+    @Test
+    void loadingStatementsDoesNotReadFiles() {
+        List<StatementInfo> statements = statementRepository.findAll();
+
+        assertThat(statements).hasSize(2);
+        assertThat(RecordingInspector.SQL).hasSize(1).noneMatch(sql -> sql.contains("file_"));
+    }
+
+    private void assertStatus(Long id, StatementStatus status) {
+        entityManager.clear();
+        assertThat(entityManager.find(StatementInfo.class, id).getStatementStatus()).isEqualTo(status);
+    }
+
+    private void assertFilesUntouched() {
+        entityManager.clear();
+        FileInfo fileInfo = entityManager.find(FileInfo.class, fileInfoId);
+        assertThat(fileInfo.getStatementId()).isEqualTo(1L);
+        assertThat(fileInfo.getFileName()).isEqualTo("statement.pdf");
+        List<FileData> fileData = entityManager.getEntityManager()
+                .createQuery("select d from FileData d", FileData.class)
+                .getResultList();
+        assertThat(fileData).singleElement()
+                .satisfies(data -> assertThat(data.getData()).containsExactly(1, 2, 3));
+    }
+
+    /**
+     * Records every SQL statement prepared by Hibernate, and runs PostgreSQL's {@code UPDATE ... RETURNING} through
+     * H2's data change delta table.
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        private static final Pattern UPDATE_RETURNING =
+                Pattern.compile("(?is)^\\s*(update\\s.+?)\\s+returning\\s+(\\w+)\\s*$");
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql.toLowerCase(Locale.ROOT));
+            Matcher matcher = UPDATE_RETURNING.matcher(sql);
+            return matcher.matches() ? "SELECT " + matcher.group(2) + " FROM FINAL TABLE (" + matcher.group(1) + ")" : sql;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.crm_for_bot.repository;
+
+import com.crm_for_bot.dto.StatementDto;
+import com.crm_for_bot.entity.StatementInfo;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the latency of the statement search on {@value #DEFAULT_ROWS} statements.
+ * <p>
+ * The search relies on {@code pg_trgm}, so it needs a PostgreSQL server; pass its address with
+ * {@code -p url=jdbc:postgresql://host:5432/db -p user=... -p password=...}. The user must be allowed to create
+ * schemas and, unless it is already installed, the {@code pg_trgm} extension. The {@value #SCHEMA} schema is
+ * created from {@code sql-initializer/src/main/resources/schema-postgres.sql}, so the tables, the
+ * {@code normalize_name} function and the search indexes are the production ones; the statements are generated
+ * into it and the schema is dropped afterwards. No other schema is touched.
+ * <p>
+ * The {@code legacyContains} benchmark is the unpaged {@code LIKE '%name%'} scan the search replaced.
+ * Run with {@code mvn -Pjmh test -Djmh.args="StatementSearchBenchmark -p url=..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementSearchBenchmark {
+
+    private static final String SCHEMA = "statement_search_benchmark";
+    private static final String DEFAULT_ROWS = "500000";
+    private static final int PAGE_SIZE = 50;
+
+    private static final String LEGACY_CONTAINS_SQL = StatementRepository.STATEMENT_DTO_SELECT +
+            "WHERE LOWER(s.full_name) LIKE LOWER(CONCAT('%', :name, '%'))";
+
+    private static final String GENERATE_STATEMENTS_SQL = "INSERT INTO statement " +
+            "(id, full_name, year_birthday, group_name, phone_number, faculty, type_of_statement) " +
+            "SELECT g, " +
+            "(ARRAY['Шевченко', 'Коваленко', 'Бондаренко', 'Ткаченко', 'Кравченко', 'Олійник', 'Шевчук', " +
+            "'Поліщук', 'Мар''яненко', 'Лисенко', 'Мельник', 'Савченко', 'Руденко', 'Марченко', 'Петренко', " +
+            "'Клименко', 'Павленко', 'Кузьменко', 'Гончаренко', 'Зінченко'])[1 + g % 20] || ' ' || " +
+            "(ARRAY['Олександр', 'Андрій', 'Дмитро', 'Максим', 'Ігор', 'Сергій', 'Юрій', 'Богдан', " +
+            "'Тарас', 'Віталій', 'Остап', 'Назар', 'Роман', 'Степан', 'Василь', 'Петро'])[1 + g / 20 % 16] || ' ' || " +
+            "(ARRAY['Іванович', 'Петрович', 'Миколайович', 'Олегович', 'Васильович', 'Степанович', 'Романович', " +
+            "'Андрійович', 'Богданович', 'Юрійович'])[1 + g / 320 % 10], " +
+            "(1995 + g % 10)::text, " +
+            "(ARRAY['КН', 'ІБ', 'ПБ', 'ЦЗ', 'ЕБ'])[1 + g % 5] || '-' || (11 + g % 40), " +
+            "'+38050' || lpad((g % 10000000)::text, 7, '0'), " +
+            "(ARRAY['Факультет цивільного захисту', 'Факультет пожежної безпеки', " +
+            "'Факультет управління'])[1 + g % 3], " +
+            "'Довідка з місця навчання' " +
+            "FROM generate_series(1, ?) AS g";
+
+    private static final String GENERATE_STATEMENT_INFO_SQL = "INSERT INTO statement_info " +
+            "(id, is_ready, statement_status) " +
+            "SELECT g, false, (ARRAY['PENDING', 'IN_PROGRESS', 'READY'])[1 + g % 3] " +
+            "FROM generate_series(1, ?) AS g";
+
+    @Param("jdbc:postgresql://localhost:5432/crm")
+    public String url;
+
+    @Param("postgres")
+    public String user;
+
+    @Param("postgres")
+    public String password;
+
+    @Param(DEFAULT_ROWS)
+    public int rows;
+
+    @Param("../sql-initializer/src/main/resources/schema-postgres.sql")
+    public String schemaScript;
+
+    private String schemaUrl;
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            ddl.execute("CREATE SCHEMA " + SCHEMA);
+            String trigramSchema = trigramSchema(connection);
+            schemaUrl = url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA
+                    + (trigramSchema == null ? "" : "," + trigramSchema);
+        }
+
+        try (Connection connection = DriverManager.getConnection(schemaUrl, user, password);
+             Statement ddl = connection.createStatement()) {
+            // Sent whole, like the sql-initializer does, so the driver splits the PL/pgSQL bodies correctly
+            ddl.execute(readSchemaScript());
+
+            // The event and counter triggers are not part of the search; generating without them keeps the setup short
+            ddl.execute("ALTER TABLE statement_info DISABLE TRIGGER USER");
+            generate(connection, GENERATE_STATEMENTS_SQL);
+            generate(connection, GENERATE_STATEMENT_INFO_SQL);
+            ddl.execute("ALTER TABLE statement_info ENABLE TRIGGER USER");
+            ddl.execute("ANALYZE statement");
+            ddl.execute("ANALYZE statement_info");
+        }
+
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(StatementInfo.class)
+                .setProperty(AvailableSettings.URL, schemaUrl)
+                .setProperty(AvailableSettings.USER, user)
+                .setProperty(AvailableSettings.PASS, password)
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.PostgreSQLDialect")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "none")
+                .buildSessionFactory();
+    }
+
+    /**
+     * Returns the schema {@code pg_trgm} is already installed in, or {@code null} if the script is to install it into
+     * the benchmark schema.
+     */
+    private static String trigramSchema(Connection connection) throws SQLException {
+        try (Statement query = connection.createStatement();
+             ResultSet resultSet = query.executeQuery("SELECT n.nspname FROM pg_extension e " +
+                     "JOIN pg_namespace n ON n.oid = e.extnamespace WHERE e.extname = 'pg_trgm'")) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    /**
+     * Reads the production schema script without its leading {@code DROP} statements: the benchmark schema is new,
+     * and a {@code DROP} must never resolve to a table of another schema on the search path.
+     */
+    private String readSchemaScript() throws IOException {
+        return Files.readAllLines(Path.of(schemaScript), StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.stripLeading().toUpperCase(Locale.ROOT).startsWith("DROP "))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private void generate(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, rows);
+            statement.executeUpdate();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        sessionFactory.close();
+        try (Connection connection = DriverManager.getConnection(schemaUrl, user, password);
+             Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @Benchmark
+    public List<StatementDto> fullName() {
+        return search("Шевченко Олександр", "");
+    }
+
+    @Benchmark
+    public List<StatementDto> misspelledName() {
+        return search("Шевчено Олександр", "");
+    }
+
+    @Benchmark
+    public List<StatementDto> nameWithoutApostrophe() {
+        return search("Маряненко", "");
+    }
+
+    @Benchmark
+    public List<StatementDto> group() {
+        return search("КН-21", "");
+    }
+
+    @Benchmark
+    public List<StatementDto> phone() {
+        return search("050 001 23", "3805000123");
+    }
+
+    @Benchmark
+    public List<StatementDto> shortPrefix() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery("StatementInfo.searchStatementsByPrefix", StatementDto.class)
+                    .setParameter("pattern", "Ше")
+                    .setParameter("limit", PAGE_SIZE + 1)
+                    .setParameter("offset", 0)
+                    .getResultList();
+        }
+    }
+
+    @Benchmark
+    public List<StatementDto> legacyContains() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNativeQuery(LEGACY_CONTAINS_SQL, StatementInfo.STATEMENT_DTO_MAPPING, StatementDto.class)
+                    .setParameter("name", "Шевченко Олександр")
+                    .getResultList();
+        }
+    }
+
+    /**
+     * Runs the search query with the parameters {@code StatementServiceImpl.searchByName} passes for the first page;
+     * none of the search texts here contain LIKE wildcards to escape.
+     */
+    private List<StatementDto> search(String text, String digits) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery("StatementInfo.searchStatements", StatementDto.class)
+                    .setParameter("name", text)
+                    .setParameter("pattern", text)
+                    .setParameter("digits", digits)
+                    .setParameter("limit", PAGE_SIZE + 1)
+                    .setParameter("offset", 0)
+                    .getResultList();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.entity.JwtRequest;
+import com.crm_for_bot.entity.User;
+import com.crm_for_bot.util.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String ACCESS_SECRET =
+            "LejjnLZua6SlR7eZXByD2+9M5P+dYxK3IlfA6XgPksuXijiXMAcpulI03o2Vq+PjYENhgTJGXLNm7YS4f1+IMw==";
+    private static final String REFRESH_SECRET =
+            "cRO8f7Q/HaE/X1QjxAHYL8Dm5qkTI68WiNi9elE1NFqsL2up0RlZn/e7aD2R5i8cMvCksBEDhUAOZAhsypQaXw==";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger passwordChecks = new AtomicInteger();
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserServiceImpl userService = mock(UserServiceImpl.class);
+        when(userService.getByLogin(anyString())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setUserId(1L);
+            user.setUserName(invocation.getArgument(0));
+            user.setEncryptedPassword("encrypted");
+            return Optional.of(user);
+        });
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            passwordChecks.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        TokenStore tokenStore = new InMemoryTokenStore(100, 10, meterRegistry);
+
+        authService = new AuthService(userService, new JwtProvider(ACCESS_SECRET, REFRESH_SECRET), passwordEncoder,
+                tokenStore, new JwtUtils(ACCESS_SECRET, tokenStore, true, meterRegistry),
+                new LoginThrottle(100, 100, Duration.ofMinutes(1), meterRegistry),
+                1, 4, Duration.ofMillis(200), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        authService.shutdown();
+    }
+
+    @Test
+    void timedOutLoginIsNotVerifiedAfterwards() throws Exception {
+        CompletableFuture<?> first = authService.loginAsync(request("first"), "10.0.0.1");
+        CompletableFuture<?> second = authService.loginAsync(request("second"), "10.0.0.1");
+
+        // The single worker is busy with the first login until both have timed out
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        release.countDown();
+
+        CompletableFuture<?> third = authService.loginAsync(request("third"), "10.0.0.1");
+        assertThat(third.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(passwordChecks).hasValue(2);
+    }
+
+    @Test
+    void loginWithinTheTimeoutSucceeds() throws Exception {
+        release.countDown();
+
+        assertThat(authService.loginAsync(request("operator"), "10.0.0.1").get(5, TimeUnit.SECONDS).getAccessToken())
+                .isNotBlank();
+    }
+
+    private static JwtRequest request(String username) {
+        JwtRequest request = new JwtRequest();
+        request.setUsername(username);
+        request.setPassword("password");
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.dto.UploadSessionDto;
+import com.crm_for_bot.repository.StatementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadServiceImplTest {
+
+    private static final byte[] CONTENT = "%PDF-1.4 statement".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path spoolDir;
+
+    private final FileService fileService = mock(FileService.class);
+    private final StatementRepository statementRepository = mock(StatementRepository.class);
+    private ChunkedUploadServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(statementRepository.existsById(1L)).thenReturn(true);
+        service = new ChunkedUploadServiceImpl(fileService, statementRepository, spoolDir, DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    void fileTypeIsDetectedFromTheNameWhenOmitted() throws Exception {
+        UploadSessionDto session = service.init(1L, "statement.pdf", null, CONTENT.length);
+        service.writeChunk(session.getUploadId(), 0, new ByteArrayInputStream(CONTENT));
+        service.complete(session.getUploadId(), sha256(CONTENT));
+
+        verify(fileService).saveFile(eq(1L), eq("statement.pdf"), eq("application/pdf"), any(InputStream.class), anyLong());
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void unknownExtensionFallsBackToOctetStream() throws Exception {
+        UploadSessionDto session = service.init(1L, "statement", "", CONTENT.length);
+        service.writeChunk(session.getUploadId(), 0, new ByteArrayInputStream(CONTENT));
+        service.complete(session.getUploadId(), sha256(CONTENT));
+
+        verify(fileService).saveFile(eq(1L), eq("statement"), eq("application/octet-stream"), any(InputStream.class), anyLong());
+    }
+
+    @Test
+    void blankFileNameIsRejected() throws IOException {
+        assertThatThrownBy(() -> service.init(1L, " ", "application/pdf", CONTENT.length))
+                .isInstanceOf(IllegalArgumentException.class);
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void sweeperRemovesMetadataWithoutData() throws IOException {
+        UploadSessionDto orphan = service.init(1L, "orphan.pdf", null, CONTENT.length);
+        UploadSessionDto active = service.init(1L, "active.pdf", null, CONTENT.length);
+        Files.delete(spoolDir.resolve(orphan.getUploadId() + ".part"));
+
+        service.removeAbandonedUploads();
+
+        assertThat(spoolDir.resolve(orphan.getUploadId() + ".properties")).doesNotExist();
+        assertThat(spoolDir.resolve(active.getUploadId() + ".properties")).exists();
+        assertThat(spoolDir.resolve(active.getUploadId() + ".part")).exists();
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,121 @@
+package com.crm_for_bot.service;
+
+import com.crm_for_bot.entity.StatementEvent;
+import com.crm_for_bot.listener.StatementChangesEvent;
+import com.crm_for_bot.repository.StatementEventRepository;
+import com.crm_for_bot.util.StatementEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatementEventServiceImplTest {
+
+    /**
+     * The rows visible to the feed, standing in for the committed contents of {@code statement_event}.
+     */
+    private final Map<Long, StatementEvent> visible = new TreeMap<>();
+
+    private final StatementEventRepository repository = mock(StatementEventRepository.class);
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private StatementEventServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findLatestEventId()).thenReturn(10L);
+        when(repository.findTop500ByIdGreaterThanOrderByIdAsc(anyLong())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return visible.values().stream().filter(event -> event.getId() > after).limit(500).toList();
+        });
+        when(repository.findByIdInOrderByIdAsc(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return visible.values().stream().filter(event -> ids.contains(event.getId())).toList();
+        });
+        service = new StatementEventServiceImpl(repository, publisher, 4);
+        service.subscribe(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void eventCommittedAfterAHigherIdIsStillPublished() {
+        commit(12);
+        service.publishNewEvents();
+        commit(11);
+        service.publishNewEvents();
+
+        assertThat(publishedIds()).containsExactly(12L, 11L);
+    }
+
+    @Test
+    void everyEventIsPublishedOnce() {
+        commit(11);
+        commit(13);
+        service.publishNewEvents();
+        service.publishNewEvents();
+        commit(12);
+        commit(14);
+        service.publishNewEvents();
+        service.publishNewEvents();
+
+        assertThat(publishedIds()).containsExactly(11L, 13L, 12L, 14L);
+    }
+
+    @Test
+    void replayDoesNotBlockTheFeed() throws Exception {
+        commit(11);
+        service.publishNewEvents();
+        CountDownLatch replayStarted = new CountDownLatch(1);
+        CountDownLatch replayMayFinish = new CountDownLatch(1);
+        when(repository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenAnswer(invocation -> {
+            replayStarted.countDown();
+            replayMayFinish.await();
+            return List.of(visible.get(11L));
+        });
+
+        CompletableFuture<SseEmitter> reconnect = CompletableFuture.supplyAsync(() -> service.subscribe("10"));
+        assertThat(replayStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        commit(12);
+        CompletableFuture.runAsync(service::publishNewEvents).get(5, TimeUnit.SECONDS);
+        replayMayFinish.countDown();
+
+        assertThat(reconnect.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(publishedIds()).containsExactly(11L, 12L);
+    }
+
+    private void commit(long id) {
+        visible.put(id, new StatementEvent(id, 1L, StatementEventType.CREATED, "PENDING", null, "ФІТ",
+                LocalDateTime.now()));
+    }
+
+    private List<Long> publishedIds() {
+        ArgumentCaptor<StatementChangesEvent> captor = ArgumentCaptor.forClass(StatementChangesEvent.class);
+        verify(publisher, atLeastOnce()).publishEvent(captor.capture());
+        List<Long> ids = new ArrayList<>();
+        captor.getAllValues().forEach(event -> event.events().forEach(e -> ids.add(e.getId())));
+        return ids;
+    }
+}
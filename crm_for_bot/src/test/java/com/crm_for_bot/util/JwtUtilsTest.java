@@ -0,0 +1,107 @@
+package com.crm_for_bot.util;
+
+import com.crm_for_bot.service.InMemoryTokenStore;
+import com.crm_for_bot.service.TokenStore;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilsTest {
+
+    private static final String SECRET =
+            "LejjnLZua6SlR7eZXByD2+9M5P+dYxK3IlfA6XgPksuXijiXMAcpulI03o2Vq+PjYENhgTJGXLNm7YS4f1+IMw==";
+
+    private TokenStore tokenStore;
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenStore = new InMemoryTokenStore(100, 10, meterRegistry);
+        jwtUtils = new JwtUtils(SECRET, tokenStore, true, meterRegistry);
+    }
+
+    @Test
+    void storedTokenIsAccepted() {
+        String token = issue("operator");
+
+        JwtPrincipal principal = jwtUtils.getPrincipal(token);
+
+        assertThat(principal.username()).isEqualTo("operator");
+        assertThat(principal.authorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void validlySignedTokenMissingFromTheStoreIsRejected() {
+        String token = token("operator", Instant.now().plus(Duration.ofMinutes(30)));
+
+        assertThatThrownBy(() -> jwtUtils.getPrincipal(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenMissingFromANonSharedStoreIsAccepted() {
+        JwtUtils memoryStoreJwtUtils = new JwtUtils(SECRET, tokenStore, false, new SimpleMeterRegistry());
+        String token = token("operator", Instant.now().plus(Duration.ofMinutes(30)));
+
+        assertThat(memoryStoreJwtUtils.getPrincipal(token).username()).isEqualTo("operator");
+    }
+
+    @Test
+    void revokedTokenIsRejectedDespiteTheCachedPrincipal() {
+        String token = issue("operator");
+        jwtUtils.getPrincipal(token);
+
+        tokenStore.revokeAccessToken("operator", token);
+        jwtUtils.evict(token);
+
+        assertThatThrownBy(() -> jwtUtils.getPrincipal(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void evictingAUserDropsOnlyTheirPrincipals() {
+        String first = issue("operator");
+        String second = issue("operator");
+        String other = issue("admin");
+        jwtUtils.getPrincipal(first);
+        jwtUtils.getPrincipal(second);
+        jwtUtils.getPrincipal(other);
+
+        tokenStore.revokeAccessToken("operator", first);
+        tokenStore.revokeAccessToken("operator", second);
+        jwtUtils.evictUser("operator");
+
+        assertThatThrownBy(() -> jwtUtils.getPrincipal(first)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtils.getPrincipal(second)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtils.getPrincipal(other).username()).isEqualTo("admin");
+    }
+
+    private String issue(String username) {
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(30));
+        String token = token(username, expiresAt);
+        tokenStore.storeAccessToken(username, token, expiresAt);
+        return token;
+    }
+
+    private static String token(String username, Instant expiresAt) {
+        return Jwts.builder()
+                .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .setExpiration(Date.from(expiresAt))
+                .claim("roles", List.of("ADMIN"))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+}
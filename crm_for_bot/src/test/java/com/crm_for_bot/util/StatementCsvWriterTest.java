@@ -0,0 +1,39 @@
+package com.crm_for_bot.util;
+
+import com.crm_for_bot.dto.StatementDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCsvWriterTest {
+
+    @Test
+    void formulaLikeValuesAreWrittenAsText() throws IOException {
+        StatementDto statement = new StatementDto(7L, "=HYPERLINK(\"http://evil\",\"x\")", "@SUM(A1)",
+                "+380501234567", "-1", "\tФакультет", "01.01.2000", "Очікує");
+
+        assertThat(row(statement)).isEqualTo("7,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",\"'@SUM(A1)\","
+                + "\"'+380501234567\",\"'-1\",\"'\tФакультет\",01.01.2000,Очікує");
+    }
+
+    @Test
+    void plainValuesAreLeftAsTheyAre() throws IOException {
+        StatementDto statement = new StatementDto(8L, "Іваненко, Іван", "КН-21", "0501234567",
+                "Довідка", "ФІТ", "", "Готово");
+
+        assertThat(row(statement)).isEqualTo("8,\"Іваненко, Іван\",КН-21,0501234567,Довідка,ФІТ,,Готово");
+    }
+
+    private static String row(StatementDto statement) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StatementCsvWriter writer = new StatementCsvWriter(out);
+        writer.writeRow(statement);
+        writer.finish();
+        String csv = out.toString(StandardCharsets.UTF_8);
+        return csv.substring(0, csv.length() - 2);
+    }
+}
@@ -1,9 +1,15 @@
 import React, { useEffect, useState } from 'react';
-import axios from 'axios';
+import axiosInstance from './axiosInstance';
 import { Table, Button, Container, Row, Col, Form, Alert, Modal } from 'react-bootstrap';
 import { useNavigate } from 'react-router-dom';
 import '../App.css';
 
+// Дії зміни статусу: шлях ендпоінта → назва статусу для оператора і значення на сервері
+const STATUS_ACTIONS = {
+  'in-progress': { label: 'В обробці', status: 'IN_PROGRESS' },
+  ready: { label: 'Готово', status: 'READY' },
+};
+
 const ListStatementComponent = () => {
   const [statements, setStatements] = useState([]);
   const [loading, setLoading] = useState(true);
@@ -15,6 +21,8 @@ const ListStatementComponent = () => {
   const [file, setFile] = useState(null);
   const [successMessage, setSuccessMessage] = useState('');
   const [showModal, setShowModal] = useState(false);
+  const [statusError, setStatusError] = useState('');
+  const [conflict, setConflict] = useState(null);
 
   const navigate = useNavigate();
 
@@ -24,14 +32,12 @@ const ListStatementComponent = () => {
 
   const fetchStatements = async () => {
     setLoading(true);
-    const token = localStorage.getItem('accessToken');
     try {
-      const response = await axios.get('http://localhost:9000/api/statements/statusAndFaculty', {
+      const response = await axiosInstance.get('/statements/statusAndFaculty', {
         params: {
           status: selectedStatus || undefined,
           faculty: selectedFaculty || undefined,
         },
-        headers: { Authorization: `Bearer ${token}` },
       });
       setStatements(response.data);
       setNoResults(response.data.length === 0);
@@ -60,30 +66,42 @@ const ListStatementComponent = () => {
     setSearchQuery(e.target.value);
   };
 
-  const handleInProgress = async (id) => {
-    if (!window.confirm("Ви впевнені, що хочете змінити статус на 'В обробці'?")) return;
-    const token = localStorage.getItem('accessToken');
+  const updateStatus = async (id, action, force = false) => {
     try {
-      await axios.put(`http://localhost:9000/api/statements/${id}/in-progress`, {}, {
-        headers: { Authorization: `Bearer ${token}` },
+      await axiosInstance.put(`/statements/${id}/${action}`, {}, {
+        params: { force: force || undefined },
       });
+      setStatusError('');
       fetchStatements();
     } catch (error) {
-      console.error('Error marking statement as IN_PROGRESS:', error);
+      if (error.response && error.response.status === 409) {
+        // Заявку вже змінив інший оператор або перехід не дозволено — показуємо актуальний статус і пропонуємо примусову зміну
+        setConflict({ id, action, message: error.response.data });
+        fetchStatements();
+      } else if (error.response && error.response.status === 404) {
+        setStatusError('Заявку не знайдено. Можливо, її вже видалено.');
+        fetchStatements();
+      } else {
+        console.error(`Error marking statement as ${STATUS_ACTIONS[action].status}:`, error);
+        setStatusError('Виникла помилка при зміні статусу заявки.');
+      }
     }
   };
 
-  const handleReady = async (id) => {
+  const handleInProgress = (id) => {
+    if (!window.confirm("Ви впевнені, що хочете змінити статус на 'В обробці'?")) return;
+    updateStatus(id, 'in-progress');
+  };
+
+  const handleReady = (id) => {
     if (!window.confirm("Ви впевнені, що хочете змінити статус на 'Готово'?")) return;
-    const token = localStorage.getItem('accessToken');
-    try {
-      await axios.put(`http://localhost:9000/api/statements/${id}/ready`, {}, {
-        headers: { Authorization: `Bearer ${token}` },
-      });
-      fetchStatements();
-    } catch (error) {
-      console.error('Error marking statement as READY:', error);
-    }
+    updateStatus(id, 'ready');
+  };
+
+  const handleForceUpdate = () => {
+    const { id, action } = conflict;
+    setConflict(null);
+    updateStatus(id, action, true);
   };
 
   const handleFileChange = (e) => {
@@ -99,13 +117,9 @@ const ListStatementComponent = () => {
     const formData = new FormData();
     formData.append('file', file);
 
-    const token = localStorage.getItem('accessToken');
     try {
-      await axios.post(`http://localhost:9000/api/files/upload/${statementId}`, formData, {
-        headers: {
-          'Content-Type': 'multipart/form-data',
-          Authorization: `Bearer ${token}`,
-        },
+      await axiosInstance.post(`/files/upload/${statementId}`, formData, {
+        headers: { 'Content-Type': 'multipart/form-data' },
       });
       setShowModal(true);
     } catch (error) {
@@ -172,6 +186,13 @@ const ListStatementComponent = () => {
             </Alert>
         )}
 
+        {/* Повідомлення про помилку зміни статусу */}
+        {statusError && (
+            <Alert variant="danger" onClose={() => setStatusError('')} dismissible>
+              {statusError}
+            </Alert>
+        )}
+
         {/* Таблиця заявок */}
         {loading ? (
             <p>Завантаження...</p>
@@ -246,6 +267,29 @@ const ListStatementComponent = () => {
             </Button>
           </Modal.Footer>
         </Modal>
+
+        {/* Модальне вікно конфлікту статусу з можливістю примусової зміни */}
+        <Modal show={conflict !== null} onHide={() => setConflict(null)}>
+          <Modal.Header closeButton>
+            <Modal.Title>Статус заявки не змінено</Modal.Title>
+          </Modal.Header>
+          <Modal.Body>
+            <p>
+              Заявку вже змінив інший оператор або її поточний статус не дозволяє перейти
+              до статусу &laquo;{conflict && STATUS_ACTIONS[conflict.action].label}&raquo;.
+              Список заявок оновлено.
+            </p>
+            {conflict && conflict.message && <p className="text-muted mb-0">{conflict.message}</p>}
+          </Modal.Body>
+          <Modal.Footer>
+            <Button variant="secondary" onClick={() => setConflict(null)}>
+              Скасувати
+            </Button>
+            <Button variant="warning" onClick={handleForceUpdate}>
+              Все одно змінити
+            </Button>
+          </Modal.Footer>
+        </Modal>
       </Container>
   );
 };
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import axios from 'axios';
+import axiosInstance from './axiosInstance';
 import 'bootstrap/dist/css/bootstrap.min.css';
 import { useNavigate } from 'react-router-dom';
 
@@ -22,10 +22,7 @@ const SuperAdminPage = () => {
 
   const fetchUsers = async () => {
     try {
-      const token = localStorage.getItem('accessToken');
-      const response = await axios.get('http://localhost:9000/api/admin/allUsers', {
-        headers: { Authorization: `Bearer ${token}` }
-      });
+      const response = await axiosInstance.get('/admin/allUsers');
       setUsers(response.data);
     } catch (error) {
       if (error.response && error.response.status === 401) {
@@ -61,10 +58,7 @@ const SuperAdminPage = () => {
   const handleRegisterUser = async (e) => {
     e.preventDefault();
     try {
-      const token = localStorage.getItem('accessToken');
-      await axios.post('http://localhost:9000/api/admin/register', newUser, {
-        headers: { Authorization: `Bearer ${token}` }
-      });
+      await axiosInstance.post('/admin/register', newUser);
       setSuccessMessage('User registered successfully');
       setNewUser({ username: '', password: '', roles: [] });
       fetchUsers();
@@ -88,11 +82,8 @@ const SuperAdminPage = () => {
 
     const confirmAction = window.confirm('Ви впевнені що хочете видалити цього користувача?');
     if (confirmAction) {
-      const token = localStorage.getItem('accessToken');
-      axios
-        .delete(`http://localhost:9000/api/admin/deleteByUsername/${username}`, {
-          headers: { Authorization: `Bearer ${token}` }
-        })
+      axiosInstance
+        .delete(`/admin/deleteByUsername/${username}`)
         .then(() => {
           setUsers((prevUsers) => prevUsers.filter((user) => user.username !== username));
         })
@@ -115,11 +106,8 @@ const SuperAdminPage = () => {
 
   const handleSavePassword = async () => {
     try {
-      const token = localStorage.getItem('accessToken');
       const updateUserDto = { newPassword: newPassword };
-      await axios.put(`http://localhost:9000/api/admin/updateByUsername/${editingUser.username}`, updateUserDto, {
-        headers: { Authorization: `Bearer ${token}` }
-      });
+      await axiosInstance.put(`/admin/updateByUsername/${editingUser.username}`, updateUserDto);
       setSuccessMessage('Password updated successfully');
       setEditingUser(null);
       fetchUsers();
@@ -1,6 +1,7 @@
 import axios from 'axios';
 
-const API_BASE_URL = 'http://localhost:9000/api/auth'; // Adjust URL as per your setup
+const API_BASE_URL = 'http://localhost:9000/api'; // Adjust URL as per your setup
+const REFRESH_URL = '/auth/token';
 
 // Create an instance of axios
 const axiosInstance = axios.create({
@@ -18,19 +19,39 @@ axiosInstance.interceptors.request.use((config) => {
     return Promise.reject(error);
 });
 
+// Refresh tokens are single-use: requests that fail together share one refresh instead of reusing the token
+let refreshPromise = null;
+
+const refreshAccessToken = () => {
+    if (!refreshPromise) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshPromise = axiosInstance.post(REFRESH_URL, { refreshToken })
+            .then((response) => {
+                localStorage.setItem('accessToken', response.data.accessToken);
+                // Refresh tokens are rotated, the previous one is rejected from now on
+                localStorage.setItem('refreshToken', response.data.refreshToken);
+                return response.data.accessToken;
+            })
+            .finally(() => {
+                refreshPromise = null;
+            });
+    }
+    return refreshPromise;
+};
+
 // Add a response interceptor to handle token refresh
 axiosInstance.interceptors.response.use((response) => {
     return response;
 }, async (error) => {
     const originalRequest = error.config;
 
-    if (error.response.status === 401 && !originalRequest._retry) {
+    // A failed refresh must not be retried: the refresh token is single-use
+    if (error.response && error.response.status === 401 && !originalRequest._retry
+        && originalRequest.url !== REFRESH_URL) {
         originalRequest._retry = true;
-        const refreshToken = localStorage.getItem('refreshToken');
         try {
-            const response = await axiosInstance.post('/token', { refreshToken });
-            localStorage.setItem('accessToken', response.data.accessToken);
-            originalRequest.headers['Authorization'] = 'Bearer ' + response.data.accessToken;
+            const accessToken = await refreshAccessToken();
+            originalRequest.headers['Authorization'] = 'Bearer ' + accessToken;
             return axiosInstance(originalRequest);
         } catch (e) {
             console.error('Refresh token failed', e);
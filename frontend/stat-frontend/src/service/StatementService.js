@@ -1,13 +1,8 @@
 // StatementService.js
-import axios from 'axios';
+import axiosInstance from '../components/axiosInstance';
 
-const REST_API_BASE_URL = 'http://localhost:9000/api/statements';
+const REST_API_BASE_URL = '/statements';
 
 export const listStatement = () => {
-  const token = localStorage.getItem('accessToken');
-  return axios.get(REST_API_BASE_URL, {
-    headers: {
-      'Authorization': `Bearer ${token}`
-    }
-  });
+  return axiosInstance.get(REST_API_BASE_URL);
 };
\ No newline at end of file
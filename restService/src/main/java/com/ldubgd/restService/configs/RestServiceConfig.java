@@ -1,18 +1,41 @@
 package com.ldubgd.restService.configs;
 
 import com.ldubgd.utils.CryptoTool;
+import com.ldubgd.utils.storage.DatabaseFileStorage;
+import com.ldubgd.utils.storage.FileStorage;
+import com.ldubgd.utils.storage.LocalFileStorage;
+import com.ldubgd.utils.storage.RoutingFileStorage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
 @Configuration
 public class RestServiceConfig {
     @Value("${salt}")
     private String salt;
 
+    @Value("${file-storage.local-root:./file-storage}")
+    private Path fileStorageRoot;
+
     @Bean
     public CryptoTool getCryptoTool(){
         return new CryptoTool(salt);
     }
 
+    /**
+     * Сховище для читання документів: файл читається з того сховища, якому належить його ключ.
+     * Сервіс лише віддає файли, тому сховище для запису не використовується.
+     */
+    @Bean
+    public FileStorage fileStorage(DataSource dataSource) throws IOException {
+        DatabaseFileStorage databaseFileStorage = new DatabaseFileStorage(dataSource);
+        LocalFileStorage localFileStorage = new LocalFileStorage(fileStorageRoot);
+        return new RoutingFileStorage(databaseFileStorage, List.of(localFileStorage, databaseFileStorage));
+    }
+
 }
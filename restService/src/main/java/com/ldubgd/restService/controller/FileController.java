@@ -4,11 +4,14 @@ import com.ldubgd.restService.entity.FileInfo;
 import com.ldubgd.restService.fileService.FileService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -23,7 +26,7 @@ public class FileController {
     private final FileService fileService;
 
     @GetMapping("/get-doc")
-    public ResponseEntity<byte[]> getDoc(@RequestParam("id") String hashId) {
+    public ResponseEntity<InputStreamResource> getDoc(@RequestParam("id") String hashId) {
         log.info("Отримано запит на завантаження файлу з hashId: " + hashId);
 
         FileInfo doc;
@@ -51,10 +54,19 @@ public class FileController {
 
         headers.setContentDispositionFormData("attachment", encodedFilename);
 
+        // Вміст передається потоком зі сховища, без завантаження всього файлу в пам'ять
+        InputStream content;
+        try {
+            content = fileService.openContent(doc);
+        } catch (IOException e) {
+            log.error("Помилка при читанні вмісту файлу: " + e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+
         log.info("Формування відповіді з файлом: " + encodedFilename);
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(doc.getFileData().getData());
+                .body(new InputStreamResource(content));
     }
 }
 
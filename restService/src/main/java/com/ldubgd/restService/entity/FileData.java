@@ -13,7 +13,6 @@ public class FileData {
 
     private byte[] data;
 
-    @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "file_info_id", unique = true)
-    private FileInfo fileInfo;
-}
\ No newline at end of file
+    @Column(name = "file_info_id", unique = true)
+    private Long fileInfoId;
+}
@@ -22,9 +22,9 @@ public class FileInfo {
     @Column(name = "statement_id")
     private Long statementId;
 
+    // Ключ вмісту у сховищі файлів; NULL для файлів, чий вміст зберігається у file_data
+    @Column(name = "storage_key")
+    private String storageKey;
 
-    @OneToOne(mappedBy = "fileInfo", cascade = CascadeType.ALL)
-    private FileData fileData;
 
-
-}
\ No newline at end of file
+}
@@ -1,10 +1,17 @@
 package com.ldubgd.restService.fileService;
 
 import com.ldubgd.restService.entity.FileInfo;
-import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 public interface FileService {
 
     FileInfo getFile(String id);
 
+    /**
+     * Відкриває вміст файлу у сховищі файлів. Потік закриває викликач.
+     */
+    InputStream openContent(FileInfo fileInfo) throws IOException;
+
 }
@@ -4,11 +4,15 @@ import com.ldubgd.restService.dao.JpaAppDocumentRepository;
 import com.ldubgd.restService.entity.FileInfo;
 import com.ldubgd.restService.fileService.FileService;
 import com.ldubgd.utils.CryptoTool;
+import com.ldubgd.utils.storage.DatabaseFileStorage;
+import com.ldubgd.utils.storage.FileStorage;
 import lombok.AllArgsConstructor;
 
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 @Slf4j
 @Service
@@ -17,6 +21,7 @@ public class FileServiceImpl implements FileService {
 
     private final JpaAppDocumentRepository jpaAppDocumentRepository;
     private final CryptoTool cryptoTool;
+    private final FileStorage fileStorage;
 
     @Override
     public FileInfo getFile(String hashId) {
@@ -35,5 +40,15 @@ public class FileServiceImpl implements FileService {
             throw new RuntimeException("Файл за id не знайдено");
         }
     }
+
+    @Override
+    public InputStream openContent(FileInfo fileInfo) throws IOException {
+        // Файли, завантажені до появи ключа сховища, зберігаються у file_data
+        String key = fileInfo.getStorageKey() != null
+                ? fileInfo.getStorageKey()
+                : DatabaseFileStorage.keyOf(fileInfo.getId());
+        log.debug("Відкриття вмісту файлу {} за ключем {}", fileInfo.getId(), key);
+        return fileStorage.open(key);
+    }
 }
 
@@ -8,6 +8,9 @@ DROP TABLE IF EXISTS file_info CASCADE;
 DROP TABLE IF EXISTS statement_info CASCADE;
 DROP TABLE IF EXISTS telegram_cache CASCADE;
 DROP TABLE IF EXISTS statement_cache CASCADE;
+DROP TABLE IF EXISTS statement_event CASCADE;
+DROP TABLE IF EXISTS statement_counter CASCADE;
+DROP TABLE IF EXISTS auth_token CASCADE;
 DROP SEQUENCE hibernate_sequence;
 
 -- Створення послідовності для генерації значень ID
@@ -82,6 +85,7 @@ CREATE TABLE file_info (
     file_name VARCHAR(255) NOT NULL,     -- Назва файлу
     file_type VARCHAR(255) NOT NULL,     -- Тип файлу
     statement_id BIGINT UNIQUE,           -- Ідентифікатор заяви, пов'язаної з файлом
+    storage_key VARCHAR(100),             -- Ключ вмісту у сховищі файлів (NULL — вміст у file_data)
     FOREIGN KEY (statement_id) REFERENCES statement_info(id) ON DELETE CASCADE
 );
 
@@ -92,3 +96,168 @@ CREATE TABLE file_data (
     file_info_id BIGINT UNIQUE,           -- Ідентифікатор інформації про файл
     FOREIGN KEY (file_info_id) REFERENCES file_info(id) ON DELETE CASCADE
 );
+
+-- Індекси для посторінкового (keyset) вибору заявок за статусом і факультетом
+CREATE INDEX idx_statement_info_status_id ON statement_info (statement_status, id);
+CREATE INDEX idx_statement_faculty_id ON statement (faculty, id);
+
+-- Журнал змін заявок для потоку подій CRM (SSE); id події використовується як Last-Event-ID
+CREATE TABLE statement_event (
+    id BIGSERIAL PRIMARY KEY,                       -- Ідентифікатор події, зростає монотонно
+    statement_id BIGINT NOT NULL,                   -- Ідентифікатор заявки
+    event_type VARCHAR(32) NOT NULL,                -- CREATED, STATUS_CHANGED або FILE_ATTACHED
+    statement_status VARCHAR(255),                  -- Статус заявки на момент події
+    previous_status VARCHAR(255),                   -- Попередній статус для STATUS_CHANGED
+    faculty TEXT,                                   -- Факультет заявки
+    created_at TIMESTAMP NOT NULL DEFAULT now()     -- Час події
+);
+
+CREATE INDEX idx_statement_event_created_at ON statement_event (created_at);
+
+-- Записує подію та будить слухачів каналу statement_events
+CREATE OR REPLACE FUNCTION record_statement_event(p_statement_id BIGINT, p_event_type VARCHAR,
+                                                  p_status VARCHAR, p_previous_status VARCHAR)
+RETURNS VOID AS $$
+DECLARE
+    v_event_id BIGINT;
+BEGIN
+    INSERT INTO statement_event (statement_id, event_type, statement_status, previous_status, faculty)
+    SELECT p_statement_id, p_event_type, p_status, p_previous_status, s.faculty
+    FROM (SELECT 1) AS one
+    LEFT JOIN statement s ON s.id = p_statement_id
+    RETURNING id INTO v_event_id;
+
+    PERFORM pg_notify('statement_events', v_event_id::text);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION statement_info_event_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM record_statement_event(NEW.id, 'CREATED', NEW.statement_status, NULL);
+    ELSIF NEW.statement_status IS DISTINCT FROM OLD.statement_status THEN
+        PERFORM record_statement_event(NEW.id, 'STATUS_CHANGED', NEW.statement_status, OLD.statement_status);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION file_info_event_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.statement_id IS NOT NULL THEN
+        PERFORM record_statement_event(NEW.statement_id, 'FILE_ATTACHED',
+            (SELECT si.statement_status FROM statement_info si WHERE si.id = NEW.statement_id), NULL);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_statement_info_event
+    AFTER INSERT OR UPDATE OF statement_status ON statement_info
+    FOR EACH ROW EXECUTE FUNCTION statement_info_event_trigger();
+
+CREATE TRIGGER trg_file_info_event
+    AFTER INSERT OR UPDATE OF file_name, file_type ON file_info
+    FOR EACH ROW EXECUTE FUNCTION file_info_event_trigger();
+
+-- Пошук заявок: триграмний індекс за ПІБ і префіксні індекси за групою та телефоном
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Нормалізація ПІБ для пошуку: нижній регістр, без апострофів (ʼ, ’, ', `), без зайвих пробілів
+CREATE OR REPLACE FUNCTION normalize_name(value TEXT)
+RETURNS TEXT AS $$
+    SELECT lower(regexp_replace(btrim(translate(coalesce(value, ''), 'ʼ’‘`´''', '')), '\s+', ' ', 'g'))
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE;
+
+CREATE INDEX idx_statement_full_name_trgm ON statement USING gin (normalize_name(full_name) gin_trgm_ops);
+CREATE INDEX idx_statement_full_name_prefix ON statement (normalize_name(full_name) text_pattern_ops);
+CREATE INDEX idx_statement_group_name_prefix ON statement (lower(group_name) text_pattern_ops);
+CREATE INDEX idx_statement_phone_digits_prefix ON statement (regexp_replace(phone_number, '\D', '', 'g') text_pattern_ops);
+
+-- Лічильники заявок за статусом, факультетом і типом для бейджів CRM;
+-- оновлюються тригерами в тій самій транзакції, що й зміни заявок
+CREATE TABLE statement_counter (
+    statement_status VARCHAR(255) NOT NULL DEFAULT '',  -- Статус заявки
+    faculty TEXT NOT NULL DEFAULT '',                   -- Факультет
+    type_of_statement TEXT NOT NULL DEFAULT '',         -- Тип заявки
+    count BIGINT NOT NULL DEFAULT 0,                    -- Кількість заявок
+    PRIMARY KEY (statement_status, faculty, type_of_statement)
+);
+
+CREATE OR REPLACE FUNCTION adjust_statement_counter(p_status VARCHAR, p_faculty TEXT, p_type TEXT, p_delta BIGINT)
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO statement_counter (statement_status, faculty, type_of_statement, count)
+    VALUES (coalesce(p_status, ''), coalesce(p_faculty, ''), coalesce(p_type, ''), p_delta)
+    ON CONFLICT (statement_status, faculty, type_of_statement)
+    DO UPDATE SET count = statement_counter.count + EXCLUDED.count;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION statement_info_counter_trigger()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_faculty TEXT;
+    v_type TEXT;
+BEGIN
+    SELECT s.faculty, s.type_of_statement INTO v_faculty, v_type
+    FROM statement s
+    WHERE s.id = coalesce(NEW.id, OLD.id);
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM adjust_statement_counter(OLD.statement_status, v_faculty, v_type, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM adjust_statement_counter(NEW.statement_status, v_faculty, v_type, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Переносить заявку між лічильниками, якщо змінився її факультет або тип
+CREATE OR REPLACE FUNCTION statement_counter_trigger()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_status VARCHAR;
+BEGIN
+    SELECT si.statement_status INTO v_status FROM statement_info si WHERE si.id = NEW.id;
+    IF FOUND THEN
+        PERFORM adjust_statement_counter(v_status, OLD.faculty, OLD.type_of_statement, -1);
+        PERFORM adjust_statement_counter(v_status, NEW.faculty, NEW.type_of_statement, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_statement_info_counter
+    AFTER INSERT OR DELETE OR UPDATE OF statement_status ON statement_info
+    FOR EACH ROW EXECUTE FUNCTION statement_info_counter_trigger();
+
+CREATE TRIGGER trg_statement_counter
+    AFTER UPDATE OF faculty, type_of_statement ON statement
+    FOR EACH ROW
+    WHEN (OLD.faculty IS DISTINCT FROM NEW.faculty OR OLD.type_of_statement IS DISTINCT FROM NEW.type_of_statement)
+    EXECUTE FUNCTION statement_counter_trigger();
+
+-- Початкове заповнення лічильників з наявних заявок
+INSERT INTO statement_counter (statement_status, faculty, type_of_statement, count)
+SELECT coalesce(si.statement_status, ''), coalesce(s.faculty, ''), coalesce(s.type_of_statement, ''), count(*)
+FROM statement_info si
+JOIN statement s ON si.id = s.id
+GROUP BY 1, 2, 3;
+
+-- Токени користувачів CRM для сховища токенів у базі (token-store.type=jdbc); зберігаються лише SHA-256 дайджести
+CREATE TABLE auth_token (
+    token_digest VARCHAR(64) PRIMARY KEY,   -- SHA-256 дайджест токена
+    user_name VARCHAR(36) NOT NULL,         -- Ім'я користувача
+    token_type VARCHAR(16) NOT NULL,        -- ACCESS, REFRESH або RETIRED_REFRESH (використаний refresh-токен)
+    expires_at TIMESTAMP NOT NULL,          -- Час закінчення дії токена
+    created_at TIMESTAMP NOT NULL DEFAULT now()  -- Час видачі токена
+);
+
+-- У користувача не більше одного refresh-токена
+CREATE UNIQUE INDEX uq_auth_token_refresh ON auth_token (user_name) WHERE token_type = 'REFRESH';
+CREATE INDEX idx_auth_token_user ON auth_token (user_name, token_type, created_at);
+CREATE INDEX idx_auth_token_expires_at ON auth_token (expires_at);
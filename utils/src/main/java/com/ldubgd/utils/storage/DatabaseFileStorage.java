@@ -0,0 +1,94 @@
+package com.ldubgd.utils.storage;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Storage of documents in the {@code file_data} table, one row per {@code file_info} row.
+ * This is where all documents were kept before the local storage existed.
+ * <p>
+ * Connections are taken from the given data source and closed after every call;
+ * pass a transaction-aware data source to join the caller's transaction.
+ */
+public class DatabaseFileStorage implements FileStorage {
+
+    public static final String KEY_PREFIX = "db:";
+
+    private static final String UPSERT_FILE_DATA = "INSERT INTO file_data (data, file_info_id) VALUES (?, ?) " +
+            "ON CONFLICT (file_info_id) DO UPDATE SET data = EXCLUDED.data";
+    private static final String SELECT_FILE_DATA = "SELECT data FROM file_data WHERE file_info_id = ?";
+
+    private final DataSource dataSource;
+
+    public DatabaseFileStorage(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Returns the key of the contents of a {@code file_info} row in this storage.
+     * Rows without a storage key predate the key column and are stored here.
+     *
+     * @param fileInfoId the id of the {@code file_info} row
+     * @return the storage key
+     */
+    public static String keyOf(long fileInfoId) {
+        return KEY_PREFIX + fileInfoId;
+    }
+
+    @Override
+    public String store(long fileInfoId, InputStream content, long length) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPSERT_FILE_DATA)) {
+            statement.setBinaryStream(1, content, length);
+            statement.setLong(2, fileInfoId);
+            statement.executeUpdate();
+            return keyOf(fileInfoId);
+        } catch (SQLException e) {
+            throw new IOException("Failed to store file data for file info " + fileInfoId, e);
+        }
+    }
+
+    /**
+     * Opens the contents of a file. A {@code bytea} value is always transferred whole,
+     * so the contents are read into memory before the connection is released.
+     */
+    @Override
+    public InputStream open(String key) throws IOException {
+        long fileInfoId = fileInfoIdOf(key);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_FILE_DATA)) {
+            statement.setLong(1, fileInfoId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new FileNotFoundException("No file stored under key: " + key);
+                }
+                return new ByteArrayInputStream(resultSet.getBytes(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to read file data for key " + key, e);
+        }
+    }
+
+    @Override
+    public boolean supports(String key) {
+        return key != null && key.startsWith(KEY_PREFIX);
+    }
+
+    private long fileInfoIdOf(String key) throws FileNotFoundException {
+        if (!supports(key)) {
+            throw new FileNotFoundException("Not a database storage key: " + key);
+        }
+        try {
+            return Long.parseLong(key.substring(KEY_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new FileNotFoundException("Malformed database storage key: " + key);
+        }
+    }
+}
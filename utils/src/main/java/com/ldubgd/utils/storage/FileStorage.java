@@ -0,0 +1,40 @@
+package com.ldubgd.utils.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Storage of statement documents. Every stored file is identified by a storage key,
+ * which is kept in {@code file_info.storage_key} and tells which storage holds the contents.
+ */
+public interface FileStorage {
+
+    /**
+     * Stores the contents of a file.
+     *
+     * @param fileInfoId the id of the {@code file_info} row the contents belong to
+     * @param content    the contents; read to the end but not closed
+     * @param length     the number of bytes in the stream
+     * @return the storage key of the stored contents
+     * @throws IOException if the contents cannot be read or stored
+     */
+    String store(long fileInfoId, InputStream content, long length) throws IOException;
+
+    /**
+     * Opens the contents stored under a key. The caller closes the stream.
+     *
+     * @param key the storage key
+     * @return the contents
+     * @throws java.io.FileNotFoundException if nothing is stored under the key
+     * @throws IOException                   if the contents cannot be read
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Tells whether this storage is responsible for a key.
+     *
+     * @param key the storage key
+     * @return {@code true} if keys of this form are stored here
+     */
+    boolean supports(String key);
+}
@@ -0,0 +1,131 @@
+package com.ldubgd.utils.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage on the local filesystem.
+ * Files are named by the SHA-256 of their contents, so identical documents are stored once.
+ * Contents are written to a temporary file, synced to disk and then atomically moved into place,
+ * so a crash never leaves a partially written document under a valid key.
+ */
+public class LocalFileStorage implements FileStorage {
+
+    public static final String KEY_PREFIX = "sha256:";
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tempDirectory;
+
+    public LocalFileStorage(Path root) throws IOException {
+        this.root = root.toAbsolutePath();
+        this.tempDirectory = this.root.resolve("tmp");
+        Files.createDirectories(tempDirectory);
+    }
+
+    @Override
+    public String store(long fileInfoId, InputStream content, long length) throws IOException {
+        Path temp = Files.createTempFile(tempDirectory, "upload-", ".part");
+        try {
+            String hash = writeAndHash(content, temp);
+            Path target = pathOf(hash);
+            if (Files.exists(target)) {
+                return KEY_PREFIX + hash;
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another upload of the same document
+                return KEY_PREFIX + hash;
+            }
+            syncDirectory(target.getParent());
+            return KEY_PREFIX + hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path path = pathOf(hashOf(key));
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("No file stored under key: " + key);
+        }
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public boolean supports(String key) {
+        return key != null && key.startsWith(KEY_PREFIX);
+    }
+
+    private String writeAndHash(InputStream content, Path temp) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            DigestInputStream in = new DigestInputStream(content, digest);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            channel.force(true);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Spreads files over two directory levels, so no directory grows too large.
+     */
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private String hashOf(String key) throws FileNotFoundException {
+        if (!supports(key)) {
+            throw new FileNotFoundException("Not a local storage key: " + key);
+        }
+        String hash = key.substring(KEY_PREFIX.length());
+        if (!SHA256_HEX.matcher(hash).matches()) {
+            throw new FileNotFoundException("Malformed local storage key: " + key);
+        }
+        return hash;
+    }
+
+    /**
+     * Makes the new directory entry durable. Not every platform allows syncing a directory, which is then skipped.
+     */
+    private void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened for syncing on some platforms
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ldubgd.utils.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Writes new documents to one storage and reads every document from the storage its key belongs to,
+ * so documents stay readable while they are moved between storages.
+ */
+public class RoutingFileStorage implements FileStorage {
+
+    private final FileStorage writeStorage;
+    private final List<FileStorage> readStorages;
+
+    /**
+     * @param writeStorage the storage new documents are written to
+     * @param readStorages all storages documents may be read from
+     */
+    public RoutingFileStorage(FileStorage writeStorage, List<FileStorage> readStorages) {
+        this.writeStorage = writeStorage;
+        this.readStorages = List.copyOf(readStorages);
+    }
+
+    @Override
+    public String store(long fileInfoId, InputStream content, long length) throws IOException {
+        return writeStorage.store(fileInfoId, content, length);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        for (FileStorage storage : readStorages) {
+            if (storage.supports(key)) {
+                return storage.open(key);
+            }
+        }
+        throw new FileNotFoundException("No storage supports key: " + key);
+    }
+
+    @Override
+    public boolean supports(String key) {
+        return readStorages.stream().anyMatch(storage -> storage.supports(key));
+    }
+}